@@ -24,4 +24,11 @@ public @interface Extension {
     ReduceType reduceType() default ReduceType.UNKNOWN;
 
     ProtocolType protocolType() default ProtocolType.LOCAL;
+
+    /**
+     * Whether run the product/use-case runners of the extension in parallel.
+     * Only taken when the reduce type is ALL or NONE, the results are still merged in priority order.
+     * The runners are executed on the worker threads, sharing the invoke cache and session context of the caller.
+     */
+    boolean parallel() default false;
 }
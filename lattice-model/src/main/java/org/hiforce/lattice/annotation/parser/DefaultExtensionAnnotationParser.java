@@ -37,6 +37,11 @@ public class DefaultExtensionAnnotationParser extends ExtensionAnnotationParser<
         return annotation.protocolType();
     }
 
+    @Override
+    public boolean isParallel(Extension annotation) {
+        return annotation.parallel();
+    }
+
     @Override
     public Class<Extension> getAnnotationClass() {
         return Extension.class;
@@ -0,0 +1,133 @@
+package org.hiforce.lattice.annotation.processor;
+
+import com.google.auto.service.AutoService;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import org.hiforce.lattice.model.ability.IAbility;
+import org.hiforce.lattice.model.ability.IBusinessExt;
+import org.hiforce.lattice.utils.ServicesFileUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Generates the registration index of the compiled module, the lattice model types
+ * (the sub types of IAbility and IBusinessExt) listed one per line, along with all the
+ * top-level types compiled with the processor. The runtime scan skips loading the compiled
+ * types which are not model types, the types compiled without the processor are still loaded.
+ * <p>
+ * The processor is triggered by every compilation and never claims the annotations.
+ * The index of an incremental compilation is merged into the existing one.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@AutoService(Processor.class)
+public class RegistrationIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_RESOURCE = "META-INF/lattice/registration.index";
+
+    public static final String COMPILED_INDEX_RESOURCE = "META-INF/lattice/compiled.index";
+
+    private final SortedSet<String> indexedClasses = Sets.newTreeSet();
+
+    private final SortedSet<String> compiledClasses = Sets.newTreeSet();
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        try {
+            if (roundEnv.processingOver()) {
+                generateIndexFile();
+            } else {
+                collectModelClasses(roundEnv);
+            }
+        } catch (Exception e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Unable to generate the lattice registration index: " + e);
+        }
+        return false;
+    }
+
+    private void collectModelClasses(RoundEnvironment roundEnv) {
+        List<TypeMirror> modelTypes = new ArrayList<>(2);
+        for (Class<?> modelClass : new Class<?>[]{IAbility.class, IBusinessExt.class}) {
+            TypeElement element = processingEnv.getElementUtils().getTypeElement(modelClass.getName());
+            if (null != element) {
+                modelTypes.add(processingEnv.getTypeUtils().erasure(element.asType()));
+            }
+        }
+        Types types = processingEnv.getTypeUtils();
+        for (Element element : roundEnv.getRootElements()) {
+            if (element.getKind() == ElementKind.PACKAGE) {
+                compiledClasses.add(((PackageElement) element).getQualifiedName() + ".package-info");
+                continue;
+            }
+            if (!(element instanceof TypeElement)) {
+                continue;
+            }
+            // 与类路径扫描一致，只索引顶层类
+            compiledClasses.add(((TypeElement) element).getQualifiedName().toString());
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.INTERFACE) {
+                continue;
+            }
+            TypeMirror type = types.erasure(element.asType());
+            for (TypeMirror modelType : modelTypes) {
+                if (types.isAssignable(type, modelType)) {
+                    indexedClasses.add(((TypeElement) element).getQualifiedName().toString());
+                    break;
+                }
+            }
+        }
+    }
+
+    private void generateIndexFile() throws IOException {
+        if (compiledClasses.isEmpty()) {
+            return;
+        }
+        writeIndexFile(INDEX_RESOURCE, indexedClasses);
+        writeIndexFile(COMPILED_INDEX_RESOURCE, compiledClasses);
+    }
+
+    private void writeIndexFile(String resource, SortedSet<String> classes) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        SortedSet<String> allClasses = Sets.newTreeSet(classes);
+        try {
+            FileObject existingFile = filer.getResource(StandardLocation.CLASS_OUTPUT, "", resource);
+            allClasses.addAll(ServicesFileUtils.readServiceFile(existingFile.openInputStream()));
+        } catch (IOException e) {
+            // 索引文件不存在
+        }
+        FileObject fileObject = filer.createResource(StandardLocation.CLASS_OUTPUT, "", resource);
+        try (OutputStream out = fileObject.openOutputStream()) {
+            ServicesFileUtils.writeServiceFile(allClasses, out);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return ImmutableSet.of("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+}
@@ -1,15 +1,17 @@
 package org.hiforce.lattice.cache.invoke;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import lombok.extern.slf4j.Slf4j;
 import org.hiforce.lattice.exception.LatticeRuntimeException;
 import org.hiforce.lattice.message.Message;
+import org.hiforce.lattice.model.context.ContextCarriers;
+import org.hiforce.lattice.model.context.ContextFrame;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -23,12 +25,38 @@ import static java.util.Collections.emptyList;
 public final class InvokeCache {
     private static final Null NULL = new Null();
 
-    private static final InvokeCacheThreadLocal INSTANCE = new InvokeCacheThreadLocal();
+    private static final int WARN_SIZE = 1000;
 
-    private static final ThreadLocal<Boolean> INIT = new ThreadLocal<>();
+    /**
+     * The maximum size of a class map kept when the cache is recycled, the larger ones are dropped.
+     */
+    private static final int MAX_RECYCLE_SIZE = 256;
+
+    /**
+     * The cache used when the invoke cache is not initialized, nothing is kept in it.
+     */
+    private static final InvokeCache DETACHED = new InvokeCache(true);
+
+    /**
+     * The class maps released by the thread, reused by the cache of its next execution instead of reallocation.
+     */
+    private static final ThreadLocal<Map<Class<?>, Map<Object, Object>>> RECYCLED = new ThreadLocal<>();
 
-    private final Map<Class<?>, Map<Object, Object>> cache = Maps.newHashMap();
+    // 缓存可能被移交给其他线程的异步任务共享，使用并发容器。Class 未重写 equals，按引用比较
+    private final Map<Class<?>, Map<Object, Object>> cache;
     private final boolean needHoldRemoteCache = false;
+    private final boolean detached;
+    private final Thread owner;
+
+    /**
+     * Whether the cache is handed over to other threads, an escaped cache is never recycled.
+     */
+    private volatile boolean escaped;
+
+    /**
+     * Whether the class maps are recycled, a released cache keeps nothing as the detached one.
+     */
+    private volatile boolean released;
 
 
     public static void main(String[] args) {
@@ -41,28 +69,137 @@ public final class InvokeCache {
     }
 
     InvokeCache() {
+        this(false);
     }
 
+    private InvokeCache(boolean detached) {
+        this(detached, new ConcurrentHashMap<>(8));
+    }
+
+    private InvokeCache(boolean detached, Map<Class<?>, Map<Object, Object>> cache) {
+        this.detached = detached;
+        this.owner = detached ? null : Thread.currentThread();
+        this.cache = cache;
+    }
+
+    /**
+     * Init the invoke cache of current execution, it's kept in the context frame
+     * of the {@link ContextCarriers}.
+     */
     public static void initInvokeCache() {
-        INIT.set(true);
-        InvokeCache.INSTANCE.get();
+        ContextFrame frame = ContextCarriers.frame(true);
+        if (null == frame) {
+            return;
+        }
+        frame.setInvokeCacheInit(true);
+        getOrCreate(frame);
     }
 
     public static boolean isThreadLocalInit() {
-        Boolean initialized = INIT.get();
-        return (null != initialized && initialized);
+        ContextFrame frame = ContextCarriers.frame(false);
+        return null != frame && frame.isInvokeCacheInit();
     }
 
     public static InvokeCache instance() {
-        if (InvokeCache.isThreadLocalInit()) {
-            return INSTANCE.get();
+        ContextFrame frame = ContextCarriers.frame(false);
+        if (null != frame && frame.isInvokeCacheInit()) {
+            return getOrCreate(frame);
         }
-        return new InvokeCache();
+        return DETACHED;
     }
 
     public static void forceClear() {
-        INSTANCE.remove();
-        INIT.remove();
+        ContextFrame frame = ContextCarriers.frame(false);
+        if (null == frame) {
+            return;
+        }
+        InvokeCache invokeCache = frame.getInvokeCache();
+        frame.setInvokeCache(null);
+        frame.setInvokeCacheInit(false);
+        ContextCarriers.releaseIfEmpty(frame);
+        if (null != invokeCache) {
+            invokeCache.recycle();
+        }
+    }
+
+    /**
+     * @return the invoke cache of current execution, null if not initialized.
+     */
+    @Nullable
+    public static InvokeCache current() {
+        ContextFrame frame = ContextCarriers.frame(false);
+        if (null == frame || !frame.isInvokeCacheInit()) {
+            return null;
+        }
+        InvokeCache invokeCache = getOrCreate(frame);
+        invokeCache.escaped = true;
+        return invokeCache;
+    }
+
+    /**
+     * Bind the invoke cache to current execution, so a task handed over to another thread
+     * shares the cache of its caller. Binding null clears the current execution.
+     *
+     * @param invokeCache the invoke cache to be bound.
+     * @return the previous bound invoke cache, to be restored after the task.
+     */
+    @Nullable
+    public static InvokeCache attach(@Nullable InvokeCache invokeCache) {
+        InvokeCache previous = current();
+        if (null == invokeCache) {
+            forceClear();
+        } else {
+            invokeCache.escaped = true;
+            ContextFrame frame = ContextCarriers.frame(true);
+            if (null != frame) {
+                frame.setInvokeCacheInit(true);
+                frame.setInvokeCache(invokeCache);
+            }
+        }
+        return previous;
+    }
+
+    private static InvokeCache getOrCreate(ContextFrame frame) {
+        InvokeCache invokeCache = frame.getInvokeCache();
+        if (null == invokeCache) {
+            synchronized (frame) {
+                invokeCache = frame.getInvokeCache();
+                if (null == invokeCache) {
+                    Map<Class<?>, Map<Object, Object>> recycled = RECYCLED.get();
+                    if (null == recycled) {
+                        invokeCache = new InvokeCache();
+                    } else {
+                        RECYCLED.remove();
+                        invokeCache = new InvokeCache(false, recycled);
+                    }
+                    frame.setInvokeCache(invokeCache);
+                }
+            }
+        }
+        if (invokeCache.owner != Thread.currentThread()) {
+            invokeCache.escaped = true;
+        }
+        return invokeCache;
+    }
+
+    /**
+     * Keep the class maps for the next execution of the owner thread, they are cleared instead of
+     * reallocated. The next execution gets a new cache, this one is released and keeps nothing,
+     * so a stale reference never reads or writes the next execution. The cache shared with
+     * other threads is left to GC.
+     */
+    private void recycle() {
+        if (escaped || owner != Thread.currentThread() || null != RECYCLED.get()) {
+            return;
+        }
+        released = true;
+        cache.values().removeIf(p -> p.size() > MAX_RECYCLE_SIZE);
+        cache.values().forEach(Map::clear);
+        RECYCLED.set(cache);
+    }
+
+    private boolean isActive() {
+        return !detached && !released && isThreadLocalInit();
     }
 
     /**
@@ -74,22 +211,19 @@ public final class InvokeCache {
      * @param <T>      要缓存对象的类型
      */
     public <T> void put(Class<? super T> klass, Object id, @Nullable T instance) {
-        if (!isThreadLocalInit()) {
+        if (!isActive()) {
             return;
         }
+        put0(getIdToInstanceCache(klass), klass, id, instance);
+    }
+
+    private static void put0(Map<Object, Object> idToInstanceCache, Class<?> klass, Object id, @Nullable Object instance) {
         if (instance != null)
             checkArgument(klass.isInstance(instance), "incompatible class and instance");
 
-        @SuppressWarnings({"MismatchedQueryAndUpdateOfCollection"})
-        Map<Object, Object> idToInstanceCache = getIdToInstanceCache(klass);
-
-        if (instance != null) {
-            idToInstanceCache.put(id, instance);
-        } else {
-            idToInstanceCache.put(id, NULL);
-        }
-        if (idToInstanceCache.size() > 1000) {
-            log.warn("RemoteCache: idToInstanceCache too large! size = " + idToInstanceCache.size() + ", class = " + klass);
+        Object previous = idToInstanceCache.put(maskNull(id), instance != null ? instance : NULL);
+        if (null == previous && log.isWarnEnabled() && idToInstanceCache.size() == WARN_SIZE + 1) {
+            log.warn("RemoteCache: idToInstanceCache too large! size > {}, class = {}", WARN_SIZE, klass);
         }
     }
 
@@ -103,21 +237,17 @@ public final class InvokeCache {
      * @param <T>       要缓存对象的类型
      */
     public <T> void batchPut(Class<? super T> klass, List<?> ids, List<? extends T> instances) {
-        if (!isThreadLocalInit())
+        if (!isActive())
             return;
 
         checkArgument(ids.size() == instances.size(), "incompatible ids and instances");
 
+        Map<Object, Object> idToInstanceCache = getIdToInstanceCache(klass);
         Iterator<?> idsItr = ids.iterator();
         Iterator<? extends T> instancesItr = instances.iterator();
 
         while (idsItr.hasNext()) {
-            Object id = idsItr.next();
-            T instance = instancesItr.next();
-            if (instance != null)
-                checkArgument(klass.isInstance(instance), "incompatible class and instance");
-
-            put(klass, id, instance);
+            put0(idToInstanceCache, klass, idsItr.next(), instancesItr.next());
         }
     }
 
@@ -155,20 +285,18 @@ public final class InvokeCache {
 
     @Nullable
     private <T> Object get0(Class<T> klass, Object id, @Nullable Callable<? extends T> callbackOnMiss) {
-        if (!isThreadLocalInit()) {
+        if (!isActive()) {
             if (callbackOnMiss != null) {
                 try {
-                    T callbackRet = callbackOnMiss.call();
-                    put(klass, id, callbackRet);
-                    return callbackRet;
+                    return callbackOnMiss.call();
                 } catch (Exception ex) {
-                    handleCallException(klass, Lists.newArrayList(id), ex);
+                    handleCallException(klass, Collections.singletonList(id), ex);
                 }
             }
             return null;
         }
         Map<Object, Object> idToInstanceCache = cache.get(klass);
-        Object ret = idToInstanceCache == null ? null : idToInstanceCache.get(id);
+        Object ret = idToInstanceCache == null ? null : idToInstanceCache.get(maskNull(id));
 
         if (ret == NULL) {
             return NULL;
@@ -183,7 +311,7 @@ public final class InvokeCache {
                 put(klass, id, callbackRet);
                 return callbackRet;
             } catch (Exception ex) {
-                handleCallException(klass, Lists.newArrayList(id), ex);
+                handleCallException(klass, Collections.singletonList(id), ex);
             }
         }
 
@@ -218,7 +346,7 @@ public final class InvokeCache {
     public <T> List<T> batchGet(Class<T> klass,
                                 List<?> ids,
                                 @Nullable Callable<List<T>> callbackOnMiss) {
-        if (!isThreadLocalInit()) {
+        if (!isActive()) {
             try {
                 if (null != callbackOnMiss) {
                     return callbackOnMiss.call();
@@ -252,6 +380,74 @@ public final class InvokeCache {
         return Collections.emptyList();
     }
 
+    /**
+     * Lookup the cached objects of the ids, without loading the missing ones.
+     *
+     * @param klass 被缓存对象的类型
+     * @param ids   被缓存对象的 ID 列表
+     * @param <T>   被缓存对象的类型
+     * @return the hit objects by id in the order of ids, and the missing ids.
+     */
+    @Nonnull
+    public <T> BatchResult<T> batchGetPartial(Class<T> klass, List<?> ids) {
+        Map<Object, Object> idToInstanceCache = isActive() ? cache.get(klass) : null;
+        if (null == idToInstanceCache) {
+            return new BatchResult<>(Collections.emptyMap(), new ArrayList<>(ids));
+        }
+        Map<Object, T> hits = new LinkedHashMap<>(ids.size() * 2);
+        List<Object> missingIds = new ArrayList<>(4);
+        for (Object id : ids) {
+            Object cachedInstance = idToInstanceCache.get(maskNull(id));
+            if (null == cachedInstance) {
+                missingIds.add(id);
+            } else {
+                //noinspection unchecked
+                hits.put(id, cachedInstance == NULL ? null : (T) cachedInstance);
+            }
+        }
+        return new BatchResult<>(hits, missingIds);
+    }
+
+    /**
+     * 以指定的类型和 ID 列表批量获取被缓存对象，仅对未命中的 ID 调用 {@code missLoader}
+     * 加载并缓存。返回的对象列表与 {@code ids} 保持顺序一致。
+     *
+     * @param klass      被缓存对象的类型
+     * @param ids        被缓存对象的 ID 列表
+     * @param missLoader 加载未命中的 ID 列表，返回的实例列表与其一一对应
+     * @param <T>        被缓存对象的类型
+     */
+    @Nonnull
+    public <T> List<T> batchGetOrLoad(Class<T> klass, List<?> ids,
+                                      Function<List<Object>, List<? extends T>> missLoader) {
+        BatchResult<T> partial = batchGetPartial(klass, ids);
+        List<? extends T> loaded = Collections.emptyList();
+        if (!partial.isComplete()) {
+            List<Object> missingIds = partial.getMissingIds();
+            try {
+                loaded = missLoader.apply(missingIds);
+            } catch (Exception ex) {
+                handleCallException(klass, missingIds, ex);
+                return Collections.emptyList();
+            }
+            checkArgument(null != loaded && loaded.size() == missingIds.size(), "incompatible ids and instances");
+            batchPut(klass, missingIds, loaded);
+        }
+
+        // 按 ids 的顺序构建结果，重复的 ID 各自对应一个结果
+        Map<Object, T> hits = partial.getHits();
+        List<T> ret = new ArrayList<>(ids.size());
+        int missed = 0;
+        for (Object id : ids) {
+            if (hits.containsKey(id)) {
+                ret.add(hits.get(id));
+            } else {
+                ret.add(loaded.get(missed++));
+            }
+        }
+        return ret;
+    }
+
     private void handleCallException(Class<?> klass, List<?> ids, Exception ex) {
         if (ex instanceof LatticeRuntimeException) {
             Message errorMessage = ((LatticeRuntimeException) ex).getErrorMessage();
@@ -265,17 +461,18 @@ public final class InvokeCache {
 
     @Nonnull
     <T> List<T> batchGet0(@Nonnull Class<T> klass, @Nonnull List<?> ids) {
-        if (!isThreadLocalInit()) {
+        Map<Object, Object> idToInstanceCache = isActive() ? cache.get(klass) : null;
+        if (null == idToInstanceCache) {
             return Collections.emptyList();
         }
         Iterator<?> idsItr = ids.iterator();
 
-        List<T> ret = Lists.newArrayListWithCapacity(ids.size());
+        List<T> ret = new ArrayList<>(ids.size());
 
         while (idsItr.hasNext()) {
             Object id = idsItr.next();
 
-            Object cachedInstance = get0(klass, id, null);
+            Object cachedInstance = idToInstanceCache.get(maskNull(id));
             if (cachedInstance == NULL) {
                 ret.add(null);
             } else if (cachedInstance != null) {
@@ -291,12 +488,21 @@ public final class InvokeCache {
 
     @Nonnull
     private Map<Object, Object> getIdToInstanceCache(@Nonnull Class<?> klass) {
-        return cache.computeIfAbsent(klass, k -> new HashMap<>());
+        Map<Object, Object> idToInstanceCache = cache.get(klass);
+        if (null != idToInstanceCache) {
+            return idToInstanceCache;
+        }
+        return cache.computeIfAbsent(klass, k -> new ConcurrentHashMap<>(16));
+    }
+
+    private static Object maskNull(Object id) {
+        return null == id ? NULL : id;
     }
 
     public void clear() {
-        if (!INSTANCE.get().needHoldRemoteCache) {
-            INSTANCE.remove();
+        ContextFrame frame = ContextCarriers.frame(false);
+        if (null != frame && !needHoldRemoteCache) {
+            frame.setInvokeCache(null);
         }
     }
 
@@ -304,6 +510,9 @@ public final class InvokeCache {
      * 清空当前线程内以指定类型缓存的对象。
      */
     public void clear(@Nonnull Class<?> klass) {
+        if (released) {
+            return;
+        }
         @SuppressWarnings({"MismatchedQueryAndUpdateOfCollection"})
         Map<Object, Object> cacheOfClass = cache.get(klass);
         if (cacheOfClass != null) {
@@ -314,6 +523,36 @@ public final class InvokeCache {
     private static class Null {
     }
 
+    /**
+     * The result of {@link #batchGetPartial(Class, List)}.
+     */
+    public static final class BatchResult<T> {
+
+        private final Map<Object, T> hits;
+
+        private final List<Object> missingIds;
+
+        BatchResult(Map<Object, T> hits, List<Object> missingIds) {
+            this.hits = hits;
+            this.missingIds = missingIds;
+        }
+
+        /**
+         * @return the hit objects by id in the order of the requested ids, the cached null included.
+         */
+        public Map<Object, T> getHits() {
+            return hits;
+        }
+
+        public List<Object> getMissingIds() {
+            return missingIds;
+        }
+
+        public boolean isComplete() {
+            return missingIds.isEmpty();
+        }
+    }
+
     public static String format(String template, Object... args) {
         StringBuilder builder = new StringBuilder(template.length() + 16 * args.length);
         int templateStart = 0;
@@ -3,7 +3,9 @@ package org.hiforce.lattice.cache.invoke;
 /**
  * @author Rocky Yu
  * @since 2022/9/20
+ * @deprecated the invoke cache is kept in the context frame of {@link org.hiforce.lattice.model.context.ContextCarriers}.
  */
+@Deprecated
 public class InvokeCacheThreadLocal extends ThreadLocal<InvokeCache> {
 
     @Override
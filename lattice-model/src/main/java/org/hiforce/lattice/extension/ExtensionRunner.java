@@ -10,6 +10,7 @@ import org.hiforce.lattice.model.business.IBizObject;
 
 import javax.annotation.Nonnull;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Rocky Yu
@@ -27,6 +28,15 @@ public abstract class ExtensionRunner<R> {
 
     public abstract void setAbility(IAbility ability);
 
+    /**
+     * Bind the runner to the ability of the current invocation. The cached runners are shared
+     * by all invocations, so they must not be mutated. The runners not depending on the ability
+     * return themselves, the others should return a bound copy.
+     */
+    public ExtensionRunner<R> bind(IAbility ability) {
+        return this;
+    }
+
     public ExtensionRunner(String extensionCode) {
         this.extensionCode = extensionCode;
     }
@@ -45,6 +55,29 @@ public abstract class ExtensionRunner<R> {
 
     public abstract ExtensionRunnerType getType();
 
+    /**
+     * Run the extension asynchronously. It runs synchronously on the calling thread by default,
+     * the runners able to invoke without blocking, e.g. the remote runners, should override it.
+     */
+    @Nonnull
+    public CompletableFuture<List<R>> runAllMatchedAsync(
+            IBizObject bizObject, ExtensionCallback<IBusinessExt, R> callback, RunnerExecuteResult executeResult) {
+        CompletableFuture<List<R>> future = new CompletableFuture<>();
+        try {
+            future.complete(runAllMatched(bizObject, callback, executeResult));
+        } catch (Throwable th) {
+            future.completeExceptionally(th);
+        }
+        return future;
+    }
+
+    /**
+     * @return whether the runner always produces exactly one result via runFirstMatched.
+     */
+    public boolean isSingleResult() {
+        return false;
+    }
+
     public static class RunnerExecuteResult {
 
         @Getter
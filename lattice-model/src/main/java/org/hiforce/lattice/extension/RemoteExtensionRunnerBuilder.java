@@ -1,6 +1,5 @@
 package org.hiforce.lattice.extension;
 
-import org.hiforce.lattice.model.ability.IAbility;
 import org.hiforce.lattice.model.register.TemplateSpec;
 
 /**
@@ -10,6 +9,11 @@ import org.hiforce.lattice.model.register.TemplateSpec;
 @SuppressWarnings("all")
 public interface RemoteExtensionRunnerBuilder {
 
+    /**
+     * Build the remote runner of the extension. The built runners are cached and shared by all
+     * the invocations, so they must not be bound to any ability, the ability of the invocation
+     * is bound via {@link ExtensionRunner#bind}.
+     */
     <R> ExtensionRemoteRunner<R> build(
-            IAbility ability, TemplateSpec templateSpec, String extCode, String scenario);
+            String bizCode, TemplateSpec templateSpec, String extCode, String scenario);
 }
@@ -33,6 +33,13 @@ public class RunnerItemEntry<R> {
         this.ability = ability;
     }
 
+    /**
+     * @return the entry bound to the ability of the current invocation, the entry itself is unchanged.
+     */
+    public RunnerItemEntry<R> bind(IAbility ability) {
+        return new RunnerItemEntry<>(ability, template, runner.bind(ability));
+    }
+
     @Override
     public String toString() {
         return "[" + template.getCode() + "|"
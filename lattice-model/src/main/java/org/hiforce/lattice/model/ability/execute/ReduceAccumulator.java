@@ -0,0 +1,56 @@
+package org.hiforce.lattice.model.ability.execute;
+
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * The per-call state of a reduce, created by {@link Reducer#newAccumulator()}.
+ * The reducer works as the strategy and the accumulator keeps the break state,
+ * so a stateless reducer instance can be shared by all invocations.
+ * <p>
+ * The default accumulator offers the results runner by runner, a reducer can return a
+ * {@link StreamingAccumulator} to fold the results one by one.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ReduceAccumulator<T, R> {
+
+    @Getter
+    private final Reducer<T, R> reducer;
+
+    @Getter
+    private boolean hasBreak;
+
+    private R result;
+
+    public ReduceAccumulator(Reducer<T, R> reducer) {
+        this.reducer = reducer;
+    }
+
+    /**
+     * Offer the results of one runner.
+     *
+     * @return whether the reduce is finished and the left runners should be skipped.
+     */
+    public boolean willBreak(Collection<T> elements) {
+        if (hasBreak) {
+            return true;
+        }
+        if (reducer.willBreak(elements)) {
+            this.hasBreak = true;
+            this.result = reducer.reduce(elements);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param elements all the offered elements, which not break the reduce.
+     * @return the reduced result.
+     */
+    public R reduce(Collection<T> elements) {
+        return hasBreak ? result : reducer.reduceCompleted(elements);
+    }
+}
@@ -8,6 +8,12 @@ import org.hiforce.lattice.annotation.model.ReduceType;
 import java.util.Collection;
 
 /**
+ * The reduce strategy of multiple extension results.
+ * <p>
+ * The built-in reducers are stateless and shared, the state of each reduce is kept in the
+ * {@link ReduceAccumulator}. The {@code hasBreak} and {@code result} fields are left for the
+ * custom reducers which still record their state in the reducer instance.
+ *
  * @author Rocky Yu
  * @since 2022/9/16
  */
@@ -24,6 +30,21 @@ public abstract class Reducer<T, R> {
 
     public abstract boolean willBreak(Collection<T> elements);
 
+    /**
+     * Reduce the elements which all passed {@link #willBreak(Collection)} without break.
+     * A reducer can override it to skip the re-check of the elements.
+     */
+    public R reduceCompleted(Collection<T> elements) {
+        return reduce(elements);
+    }
+
+    /**
+     * @return a new accumulator to hold the state of one reduce.
+     */
+    public ReduceAccumulator<T, R> newAccumulator() {
+        return new ReduceAccumulator<>(this);
+    }
+
 
     public final void setBreak() {
         this.hasBreak = true;
@@ -0,0 +1,68 @@
+package org.hiforce.lattice.model.ability.execute;
+
+import java.util.Collection;
+
+/**
+ * The accumulator which folds each result as soon as the runner produced it,
+ * instead of collecting all the results and reducing them at the end.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public abstract class StreamingAccumulator<T, R> extends ReduceAccumulator<T, R> {
+
+    private boolean stopped;
+
+    public StreamingAccumulator(Reducer<T, R> reducer) {
+        super(reducer);
+    }
+
+    /**
+     * Fold one result into the accumulator.
+     *
+     * @return whether the reduce is finished and the left results should be skipped.
+     */
+    public abstract boolean accumulate(T element);
+
+    /**
+     * @return the reduced result of the accumulated elements.
+     */
+    public abstract R finish();
+
+    /**
+     * Fold the result, and remember the termination.
+     */
+    public final boolean offer(T element) {
+        if (stopped) {
+            return true;
+        }
+        stopped = accumulate(element);
+        return stopped;
+    }
+
+    @Override
+    public boolean isHasBreak() {
+        return stopped;
+    }
+
+    @Override
+    public boolean willBreak(Collection<T> elements) {
+        if (null == elements) {
+            return stopped;
+        }
+        for (T element : elements) {
+            if (offer(element)) {
+                return true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * The elements have been folded already, so the argument is ignored.
+     */
+    @Override
+    public R reduce(Collection<T> elements) {
+        return finish();
+    }
+}
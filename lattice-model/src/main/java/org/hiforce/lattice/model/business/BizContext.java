@@ -5,6 +5,7 @@ import org.hiforce.lattice.cache.invoke.InvokeCache;
 
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * @author Rocky Yu
@@ -21,15 +22,34 @@ public abstract class BizContext implements Serializable {
     public abstract String getScenario();
 
     public String getBizInfo() {
-        return String.format("[BizCode: %s, BizId: %s]", getBizCode(), getBizId());
+        return "[BizCode: " + getBizCode() + ", BizId: " + getBizId() + "]";
     }
 
     @Override
     public String toString() {
-        return String.format("%s-%s", getBizCode(), getBizId());
+        return getBizCode() + "-" + getBizId();
     }
 
-    private int hashCode;
+    private transient int hashCode;
+
+    private transient boolean hashCodeComputed;
+
+    private transient BizSessionKey sessionKey;
+
+    /**
+     * The key of the business object in the session, computed once. The bizCode and bizId
+     * are expected to be stable once the context is built.
+     *
+     * @return the session key, made of the interned bizCode id and the bizId.
+     */
+    public BizSessionKey getSessionKey() {
+        BizSessionKey key = sessionKey;
+        if (null == key) {
+            key = BizSessionKey.of(getBizCode(), getBizId());
+            sessionKey = key;
+        }
+        return key;
+    }
 
     @SuppressWarnings("unused")
     public <T> void addExtObject(Class<? super T> klass, @Nullable T instance) {
@@ -56,18 +76,13 @@ public abstract class BizContext implements Serializable {
 
     @Override
     public int hashCode() {
-        int hashCode = this.hashCode;
-        if (hashCode > 0) {
+        if (hashCodeComputed) {
             return hashCode;
         }
-        int result = 31;
-        if (StringUtils.isNotEmpty(getBizCode())) {
-            result *= getBizCode().hashCode();
-        }
-        if (null != getBizId()) {
-            result = 31 * result + getBizId().hashCode();
-        }
+        int result = 31 + Objects.hashCode(getBizCode());
+        result = 31 * result + Objects.hashCode(getBizId());
         this.hashCode = result;
+        this.hashCodeComputed = true;
         return result;
     }
 }
@@ -0,0 +1,130 @@
+package org.hiforce.lattice.model.business;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The session key of a business object: the interned id of the bizCode plus the bizId.
+ * The Long and Integer bizIds are kept as a primitive, the key is built once per {@link BizContext}
+ * and compared without any string formatting. The bizCode ids are only valid in current
+ * process, so the key is not serializable.
+ * At most {@link #MAX_CODES} bizCodes are interned and the ids are released by {@link #clearCache()},
+ * an id is never reused, the keys without a shared id fall back to compare the bizCodes.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public final class BizSessionKey {
+
+    private static final byte OBJECT_ID = 0;
+
+    private static final byte LONG_ID = 1;
+
+    private static final byte INT_ID = 2;
+
+    /**
+     * The bizCode has no interned id, the key should compare the bizCode.
+     */
+    static final int OVERFLOW = -1;
+
+    /**
+     * The max number of interned bizCodes, the bizCodes may come from the callers.
+     */
+    static final int MAX_CODES = 1 << 16;
+
+    private static final Map<String, Integer> CODE_IDS = new ConcurrentHashMap<>(256);
+
+    private static final AtomicInteger CODE_SEQUENCE = new AtomicInteger();
+
+    private final int codeId;
+
+    private final String bizCode;
+
+    /**
+     * The type of the bizId, the Long and Integer ids are not equal as the bizId.
+     */
+    private final byte idType;
+
+    private final long numericId;
+
+    /**
+     * The bizId if it's neither Long nor Integer, null otherwise.
+     */
+    private final Serializable bizId;
+
+    private final int hash;
+
+    private BizSessionKey(String bizCode, byte idType, long numericId, Serializable bizId) {
+        this.codeId = codeIdOf(bizCode);
+        this.bizCode = bizCode;
+        this.idType = idType;
+        this.numericId = numericId;
+        this.bizId = bizId;
+        this.hash = 31 * (31 * Objects.hashCode(bizCode) + Long.hashCode(numericId)) + Objects.hashCode(bizId);
+    }
+
+    public static BizSessionKey of(String bizCode, Serializable bizId) {
+        if (bizId instanceof Long) {
+            return new BizSessionKey(bizCode, LONG_ID, (Long) bizId, null);
+        }
+        if (bizId instanceof Integer) {
+            return new BizSessionKey(bizCode, INT_ID, (Integer) bizId, null);
+        }
+        return new BizSessionKey(bizCode, OBJECT_ID, 0L, bizId);
+    }
+
+    /**
+     * @return the interned id of the bizCode, 0 for null, {@link #OVERFLOW} if too many bizCodes are interned.
+     */
+    public static int codeIdOf(String bizCode) {
+        if (null == bizCode) {
+            return 0;
+        }
+        Integer id = CODE_IDS.get(bizCode);
+        if (null != id) {
+            return id;
+        }
+        if (CODE_IDS.size() >= MAX_CODES) {
+            return OVERFLOW;
+        }
+        return CODE_IDS.computeIfAbsent(bizCode, k -> CODE_SEQUENCE.incrementAndGet());
+    }
+
+    /**
+     * Release the interned bizCodes, along with the runtime caches.
+     * The sequence is not reset, the keys built before still equal the keys built after.
+     */
+    public static void clearCache() {
+        CODE_IDS.clear();
+    }
+
+    public int getCodeId() {
+        return codeId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BizSessionKey)) return false;
+        BizSessionKey that = (BizSessionKey) o;
+        if (hash != that.hash || idType != that.idType || numericId != that.numericId) {
+            return false;
+        }
+        // 同一个 id 一定是同一个 bizCode，清理后重新分配的 id 不同，需比较 bizCode
+        boolean sameCode = (codeId > 0 && codeId == that.codeId) || Objects.equals(bizCode, that.bizCode);
+        return sameCode && Objects.equals(bizId, that.bizId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return bizCode + "-" + (OBJECT_ID == idType ? String.valueOf(bizId) : String.valueOf(numericId));
+    }
+}
@@ -20,4 +20,18 @@ public interface ITemplate {
 
     boolean isPatternTemplateCode();
 
+    /**
+     * Whether the template keeps no state across {@link #isEffect(ScenarioRequest)} calls.
+     * <p>
+     * A stateless template is instantiated once, the instance is shared by all the sessions
+     * and threads, and {@link #isEffect(ScenarioRequest)} may be called concurrently, e.g. to
+     * evaluate a batch of requests in parallel. Such a template must not keep any per-request
+     * state in its fields. A template not stateless gets a new instance for every evaluation.
+     *
+     * @return true if the template is stateless, false by default.
+     */
+    default boolean isStateless() {
+        return false;
+    }
+
 }
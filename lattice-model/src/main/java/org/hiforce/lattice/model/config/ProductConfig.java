@@ -27,7 +27,7 @@ public class ProductConfig implements Serializable {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof ProductConfig)) return false;
 
         ProductConfig config = (ProductConfig) o;
 
@@ -1,11 +1,21 @@
 package org.hiforce.lattice.model.config;
 
 import org.hiforce.lattice.exception.LatticeRuntimeException;
+import org.hiforce.lattice.model.business.TemplateType;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
+ * The frozen business config, the products, extensions and priorities are copied into
+ * unmodifiable structures once, so the instance can be shared by all readers. The lookups
+ * by product code and extension code are served from the indexes built at the same time.
+ *
  * @author Rocky Yu
  * @since 2022/9/21
  */
@@ -13,14 +23,113 @@ public class ReadonlyBusinessConfig extends BusinessConfig {
 
     private static final long serialVersionUID = 248112387639393117L;
 
+    private final Set<ProductConfig> readonlyProducts;
+
+    private final List<ExtPriorityConfig> readonlyExtensions;
+
+    private final Map<String, ProductConfig> productIndex;
+
+    private final Map<String, ExtPriorityConfig> extensionIndex;
+
+    private final Map<String, List<ExtPriority>> priorityIndex;
+
+    private final Map<String, List<ExtPriority>> horizontalPriorityIndex;
+
     public ReadonlyBusinessConfig(String bizCode, int priority, Set<ProductConfig> products, List<ExtPriorityConfig> priorities) {
-        super(bizCode, priority, products, priorities);
+        super(bizCode, priority, freezeProducts(products), freezeExtensions(priorities));
+        this.readonlyProducts = Collections.unmodifiableSet(super.getProducts());
+        this.readonlyExtensions = Collections.unmodifiableList(super.getExtensions());
+
+        this.productIndex = new HashMap<>(readonlyProducts.size() * 2);
+        for (ProductConfig product : readonlyProducts) {
+            productIndex.putIfAbsent(product.getCode(), product);
+        }
+        this.extensionIndex = new HashMap<>(readonlyExtensions.size() * 2);
+        this.priorityIndex = new HashMap<>(readonlyExtensions.size() * 2);
+        this.horizontalPriorityIndex = new HashMap<>(readonlyExtensions.size() * 2);
+        for (ExtPriorityConfig extension : readonlyExtensions) {
+            // 与原先的顺序查找保持一致，同一个扩展点以第一个配置为准
+            if (null != extensionIndex.putIfAbsent(extension.getExtCode(), extension)) {
+                continue;
+            }
+            List<ExtPriority> all = extension.getPriorities();
+            List<ExtPriority> horizontal = new ArrayList<>(all.size());
+            for (ExtPriority extPriority : all) {
+                if (extPriority.getType().isHorizontal()) {
+                    horizontal.add(extPriority);
+                }
+            }
+            priorityIndex.put(extension.getExtCode(), all);
+            horizontalPriorityIndex.put(extension.getExtCode(), Collections.unmodifiableList(horizontal));
+        }
+    }
+
+    /**
+     * @return the frozen copy of the config, or the config itself if it's already frozen.
+     */
+    public static ReadonlyBusinessConfig of(BusinessConfig config) {
+        if (config instanceof ReadonlyBusinessConfig) {
+            return (ReadonlyBusinessConfig) config;
+        }
+        ReadonlyBusinessConfig readonly = new ReadonlyBusinessConfig(config.getBizCode(), config.getPriority(),
+                config.getProducts(), config.getExtensions());
+        readonly.setAutoBuild0(config.isAutoBuild());
+        return readonly;
+    }
+
+    @Override
+    public Set<ProductConfig> getProducts() {
+        return readonlyProducts;
+    }
+
+    @Override
+    public List<ExtPriorityConfig> getExtensions() {
+        return readonlyExtensions;
     }
 
+    @Override
+    public boolean productInstalled(String productCode) {
+        return productIndex.containsKey(productCode);
+    }
+
+    @Override
+    public boolean notContainExtCode(String extCode) {
+        return !extensionIndex.containsKey(extCode);
+    }
+
+    @Override
+    public ProductConfig getProductConfig(String productCode) {
+        return productIndex.get(productCode);
+    }
+
+    @Override
+    public ExtPriorityConfig getExtPriorityConfigByExtCode(String extCode) {
+        return extensionIndex.get(extCode);
+    }
+
+    /**
+     * @return the precomputed priorities of the extension, the list is unmodifiable.
+     */
+    @Override
+    public List<ExtPriority> getExtPriorityByCode(String extCode, boolean onlyHorizontal) {
+        return onlyHorizontal ? horizontalPriorityIndex.get(extCode) : priorityIndex.get(extCode);
+    }
+
+    @Override
     public void setBizCode(String bizCode) {
         throw new LatticeRuntimeException("LATTICE-CORE-003");
     }
 
+    @Override
+    public void setPriority(int priority) {
+        throw new LatticeRuntimeException("LATTICE-CORE-003");
+    }
+
+    @Override
+    public void setAutoBuild(boolean autoBuild) {
+        throw new LatticeRuntimeException("LATTICE-CORE-003");
+    }
+
     public void setInstalledProducts(List<ProductConfig> installedProducts) {
         throw new LatticeRuntimeException("LATTICE-CORE-003");
     }
@@ -28,4 +137,83 @@ public class ReadonlyBusinessConfig extends BusinessConfig {
     public void setPriorityConfigs(List<ExtPriorityConfig> priorityConfigs) {
         throw new LatticeRuntimeException("LATTICE-CORE-003");
     }
+
+    private void setAutoBuild0(boolean autoBuild) {
+        super.setAutoBuild(autoBuild);
+    }
+
+    private static Set<ProductConfig> freezeProducts(Set<ProductConfig> products) {
+        Set<ProductConfig> frozen = new LinkedHashSet<>(products.size() * 2);
+        for (ProductConfig product : products) {
+            frozen.add(new ReadonlyProductConfig(product.getCode()));
+        }
+        return frozen;
+    }
+
+    private static List<ExtPriorityConfig> freezeExtensions(List<ExtPriorityConfig> extensions) {
+        List<ExtPriorityConfig> frozen = new ArrayList<>(extensions.size());
+        for (ExtPriorityConfig extension : extensions) {
+            frozen.add(extension instanceof ReadonlyExtPriorityConfig ? extension
+                    : new ReadonlyExtPriorityConfig(extension));
+        }
+        return frozen;
+    }
+
+    private static class ReadonlyProductConfig extends ProductConfig {
+
+        private static final long serialVersionUID = 4204398155447457498L;
+
+        private ReadonlyProductConfig(String code) {
+            super.setCode(code);
+        }
+
+        @Override
+        public void setCode(String code) {
+            throw new LatticeRuntimeException("LATTICE-CORE-003");
+        }
+    }
+
+    private static class ReadonlyExtPriorityConfig extends ExtPriorityConfig {
+
+        private static final long serialVersionUID = -2446316893196585812L;
+
+        private ReadonlyExtPriorityConfig(ExtPriorityConfig config) {
+            super(config.getExtCode());
+            List<ExtPriority> priorities = new ArrayList<>(config.getPriorities().size());
+            for (ExtPriority priority : config.getPriorities()) {
+                priorities.add(new ReadonlyExtPriority(priority.getCode(), priority.getType()));
+            }
+            super.setPriorities(Collections.unmodifiableList(priorities));
+        }
+
+        @Override
+        public void setExtCode(String extCode) {
+            throw new LatticeRuntimeException("LATTICE-CORE-003");
+        }
+
+        @Override
+        public void setPriorities(List<ExtPriority> priorities) {
+            throw new LatticeRuntimeException("LATTICE-CORE-003");
+        }
+    }
+
+    private static class ReadonlyExtPriority extends ExtPriority {
+
+        private static final long serialVersionUID = 6093525468757462871L;
+
+        private ReadonlyExtPriority(String code, TemplateType type) {
+            super.setCode(code);
+            super.setType(type);
+        }
+
+        @Override
+        public void setCode(String code) {
+            throw new LatticeRuntimeException("LATTICE-CORE-003");
+        }
+
+        @Override
+        public void setType(TemplateType type) {
+            throw new LatticeRuntimeException("LATTICE-CORE-003");
+        }
+    }
 }
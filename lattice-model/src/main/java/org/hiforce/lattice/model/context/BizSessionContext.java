@@ -3,10 +3,16 @@ package org.hiforce.lattice.model.context;
 import com.google.common.collect.Maps;
 import lombok.Getter;
 import org.hiforce.lattice.cache.invoke.InvokeCache;
+import org.hiforce.lattice.model.business.BizContext;
+import org.hiforce.lattice.model.business.BizSessionKey;
+import org.hiforce.lattice.model.business.IBizObject;
 import org.hiforce.lattice.model.business.ITemplate;
 import org.hiforce.lattice.model.register.TemplateSpec;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,13 +22,86 @@ import java.util.Map;
  */
 public class BizSessionContext {
 
-    private static final ThreadLocal<BizSessionContext> SESSION_CONTEXT_THREAD_LOCAL =
-            ThreadLocal.withInitial(BizSessionContext::new);
-
+    /**
+     * The effective templates keyed by the string of BizContext, filled along with the maps below
+     * for the callers looking up by it. The runtime looks up via {@link #getEffectiveTemplates(IBizObject)}.
+     */
     @Getter
     private final Map<String, List<TemplateSpec<? extends ITemplate>>>
             effectiveTemplates = Maps.newConcurrentMap();
 
+    /**
+     * The templates published into {@link #effectiveTemplates}, to tell them from the ones put by
+     * the callers, the lookup by the string would mix up the bizIds of different types.
+     */
+    private final Map<String, List<TemplateSpec<? extends ITemplate>>>
+            publishedTemplates = Maps.newConcurrentMap();
+
+    /**
+     * The effective templates keyed by the identity of business object, published as a whole.
+     */
+    private volatile Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> objectTemplates =
+            Collections.emptyMap();
+
+    /**
+     * The effective templates keyed by the session key of BizContext, for the business objects
+     * not identical with the ones the session entered with.
+     */
+    private volatile Map<BizSessionKey, List<TemplateSpec<? extends ITemplate>>> contextTemplates =
+            Collections.emptyMap();
+
+    /**
+     * Publish the effective templates of the business objects in one go.
+     *
+     * @param templates the effective templates of each business object.
+     */
+    public synchronized void putEffectiveTemplates(Map<? extends IBizObject, List<TemplateSpec<? extends ITemplate>>> templates) {
+        Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> byObject =
+                new IdentityHashMap<>(objectTemplates.size() + templates.size());
+        Map<BizSessionKey, List<TemplateSpec<? extends ITemplate>>> byContext =
+                new HashMap<>((contextTemplates.size() + templates.size()) * 2);
+        byObject.putAll(objectTemplates);
+        byContext.putAll(contextTemplates);
+        for (Map.Entry<? extends IBizObject, List<TemplateSpec<? extends ITemplate>>> entry : templates.entrySet()) {
+            byObject.put(entry.getKey(), entry.getValue());
+            BizContext bizContext = entry.getKey().getBizContext();
+            if (null != bizContext) {
+                byContext.put(bizContext.getSessionKey(), entry.getValue());
+                String contextKey = bizContext.toString();
+                publishedTemplates.put(contextKey, entry.getValue());
+                effectiveTemplates.put(contextKey, entry.getValue());
+            }
+        }
+        this.objectTemplates = byObject;
+        this.contextTemplates = byContext;
+    }
+
+    /**
+     * @param bizObject the business object.
+     * @return the effective templates of the business object, null if not found.
+     */
+    @Nullable
+    public List<TemplateSpec<? extends ITemplate>> getEffectiveTemplates(IBizObject bizObject) {
+        List<TemplateSpec<? extends ITemplate>> templates = objectTemplates.get(bizObject);
+        if (null != templates) {
+            return templates;
+        }
+        BizContext bizContext = bizObject.getBizContext();
+        if (null == bizContext) {
+            return null;
+        }
+        templates = contextTemplates.get(bizContext.getSessionKey());
+        if (null == templates && !effectiveTemplates.isEmpty()) {
+            // the templates put by the callers into the string keyed map
+            String contextKey = bizContext.toString();
+            templates = effectiveTemplates.get(contextKey);
+            if (null != templates && templates == publishedTemplates.get(contextKey)) {
+                templates = null;
+            }
+        }
+        return templates;
+    }
+
     @SuppressWarnings("unused")
     public <T> void addExtObject(Class<? super T> klass, Object id, @Nullable T instance) {
         InvokeCache.instance().put(klass, id, instance);
@@ -43,13 +122,49 @@ public class BizSessionContext {
 
 
     public static BizSessionContext init() {
-        BizSessionContext context = SESSION_CONTEXT_THREAD_LOCAL.get();
+        ContextFrame frame = ContextCarriers.frame(true);
+        BizSessionContext context = null == frame ? new BizSessionContext() : frame.getSessionContext();
+        if (null == context) {
+            context = new BizSessionContext();
+            frame.setSessionContext(context);
+        }
         InvokeCache.instance().put(BizSessionContext.class, BizSessionContext.class, context);
         return context;
     }
 
+    /**
+     * @return the session context of current execution, null if not initialized.
+     */
+    @Nullable
+    public static BizSessionContext current() {
+        ContextFrame frame = ContextCarriers.frame(false);
+        return null == frame ? null : frame.getSessionContext();
+    }
+
+    /**
+     * Bind the session context to current execution, binding null clears the current execution.
+     *
+     * @return the previous bound session context, to be restored after the task.
+     */
+    @Nullable
+    public static BizSessionContext attach(@Nullable BizSessionContext context) {
+        ContextFrame frame = ContextCarriers.frame(null != context);
+        if (null == frame) {
+            return null;
+        }
+        BizSessionContext previous = frame.getSessionContext();
+        frame.setSessionContext(context);
+        if (null == context) {
+            ContextCarriers.releaseIfEmpty(frame);
+        }
+        return previous;
+    }
+
     public static void destroy() {
-        SESSION_CONTEXT_THREAD_LOCAL.set(null);
-        SESSION_CONTEXT_THREAD_LOCAL.remove();
+        ContextFrame frame = ContextCarriers.frame(false);
+        if (null != frame) {
+            frame.setSessionContext(null);
+            ContextCarriers.releaseIfEmpty(frame);
+        }
     }
 }
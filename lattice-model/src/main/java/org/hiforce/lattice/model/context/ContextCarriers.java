@@ -0,0 +1,80 @@
+package org.hiforce.lattice.model.context;
+
+import org.hiforce.lattice.spi.context.ContextCarrierSpi;
+
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * The entrance of the context carrier. The carrier is loaded via {@link ContextCarrierSpi},
+ * the available one with the highest priority is used, falls back to {@link ThreadLocalContextCarrier}.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public final class ContextCarriers {
+
+    private static volatile ContextCarrierSpi carrier;
+
+    private ContextCarriers() {
+    }
+
+    public static ContextCarrierSpi getCarrier() {
+        if (null == carrier) {
+            synchronized (ContextCarriers.class) {
+                if (null == carrier) {
+                    carrier = loadCarrier();
+                }
+            }
+        }
+        return carrier;
+    }
+
+    public static void setCarrier(ContextCarrierSpi contextCarrier) {
+        carrier = contextCarrier;
+    }
+
+    /**
+     * @param create whether create and bind a new frame when absent.
+     * @return the frame of current execution.
+     */
+    public static ContextFrame frame(boolean create) {
+        ContextCarrierSpi contextCarrier = getCarrier();
+        ContextFrame frame = contextCarrier.current();
+        if (null == frame && create && contextCarrier.isBindable()) {
+            frame = new ContextFrame();
+            contextCarrier.bind(frame);
+        }
+        return frame;
+    }
+
+    public static <V> V callWith(ContextFrame frame, Supplier<V> task) {
+        return getCarrier().callWith(frame, task);
+    }
+
+    /**
+     * Unbind the frame when nothing kept in it, so that a pooled thread never holds a stale frame.
+     */
+    public static void releaseIfEmpty(ContextFrame frame) {
+        ContextCarrierSpi contextCarrier = getCarrier();
+        if (null != frame && frame.isEmpty() && contextCarrier.isBindable()
+                && contextCarrier.current() == frame) {
+            contextCarrier.bind(null);
+        }
+    }
+
+    private static ContextCarrierSpi loadCarrier() {
+        ContextCarrierSpi selected = null;
+        try {
+            for (ContextCarrierSpi spi : ServiceLoader.load(ContextCarrierSpi.class,
+                    ContextCarriers.class.getClassLoader())) {
+                if (spi.isAvailable() && (null == selected || spi.getPriority() > selected.getPriority())) {
+                    selected = spi;
+                }
+            }
+        } catch (Throwable ignored) {
+            //use the default carrier.
+        }
+        return null == selected ? new ThreadLocalContextCarrier() : selected;
+    }
+}
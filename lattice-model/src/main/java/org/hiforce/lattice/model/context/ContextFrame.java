@@ -0,0 +1,66 @@
+package org.hiforce.lattice.model.context;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.hiforce.lattice.cache.invoke.InvokeCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The invoke context of an execution, carried by the {@link ContextCarriers}.
+ * A frame can be created explicitly and passed to the session scope, and it can be shared
+ * by the child tasks of the execution.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public final class ContextFrame {
+
+    @Getter
+    @Setter
+    private volatile boolean invokeCacheInit;
+
+    @Getter
+    @Setter
+    private volatile InvokeCache invokeCache;
+
+    @Getter
+    @Setter
+    private volatile BizSessionContext sessionContext;
+
+    private volatile Map<Object, Object> entrances;
+
+    /**
+     * @return the entrance state of the scope entrance key, created when absent.
+     */
+    public Object getEntrance(Object key, Function<Object, Object> creator) {
+        Map<Object, Object> map = entrances;
+        if (null == map) {
+            synchronized (this) {
+                if (null == entrances) {
+                    entrances = new ConcurrentHashMap<>(4);
+                }
+                map = entrances;
+            }
+        }
+        return map.computeIfAbsent(key, creator);
+    }
+
+    public void removeEntrance(Object key) {
+        Map<Object, Object> map = entrances;
+        if (null != map) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * @return whether nothing kept in the frame.
+     */
+    public boolean isEmpty() {
+        Map<Object, Object> map = entrances;
+        return !invokeCacheInit && null == invokeCache && null == sessionContext
+                && (null == map || map.isEmpty());
+    }
+}
@@ -0,0 +1,37 @@
+package org.hiforce.lattice.model.context;
+
+import java.util.function.Supplier;
+
+/**
+ * The captured invoke context of the caller, the {@link ContextFrame} holding the InvokeCache
+ * and the BizSessionContext, to be bound on the thread which executes the handed over task.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public final class ContextSnapshot {
+
+    private final ContextFrame frame;
+
+    private ContextSnapshot(ContextFrame frame) {
+        this.frame = frame;
+    }
+
+    public static ContextSnapshot capture() {
+        return new ContextSnapshot(ContextCarriers.frame(false));
+    }
+
+    /**
+     * Run the task with the captured context, the context of the executing thread is restored afterwards.
+     */
+    public <V> V call(Supplier<V> task) {
+        if (frame == ContextCarriers.frame(false)) {
+            return task.get();
+        }
+        return ContextCarriers.callWith(frame, task);
+    }
+
+    public <V> Supplier<V> wrap(Supplier<V> task) {
+        return () -> call(task);
+    }
+}
@@ -0,0 +1,47 @@
+package org.hiforce.lattice.model.context;
+
+import org.hiforce.lattice.spi.context.ContextCarrierSpi;
+
+import java.util.function.Supplier;
+
+/**
+ * The default context carrier, binds the frame to current thread.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ThreadLocalContextCarrier implements ContextCarrierSpi {
+
+    private static final ThreadLocal<ContextFrame> FRAME = new ThreadLocal<>();
+
+    @Override
+    public int getPriority() {
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public ContextFrame current() {
+        return FRAME.get();
+    }
+
+    @Override
+    public <V> V callWith(ContextFrame frame, Supplier<V> task) {
+        ContextFrame previous = bind(frame);
+        try {
+            return task.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    @Override
+    public ContextFrame bind(ContextFrame frame) {
+        ContextFrame previous = FRAME.get();
+        if (null == frame) {
+            FRAME.remove();
+        } else {
+            FRAME.set(frame);
+        }
+        return previous;
+    }
+}
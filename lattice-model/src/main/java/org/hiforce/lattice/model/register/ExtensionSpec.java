@@ -36,6 +36,13 @@ public class ExtensionSpec extends BaseSpec {
     @Setter
     private ProtocolType protocolType = ProtocolType.LOCAL;
 
+    /**
+     * Whether run the runners of the extension in parallel.
+     */
+    @Getter
+    @Setter
+    private boolean parallel;
+
     @Getter
     @Setter
     private String groupCode;
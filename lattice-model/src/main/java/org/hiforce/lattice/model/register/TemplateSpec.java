@@ -42,5 +42,47 @@ public abstract class TemplateSpec<T extends ITemplate> extends BaseSpec {
         return internalId;
     }
 
+    private volatile T sharedInstance;
+
+    /**
+     * Whether the template is known to be stateful, its instance must not be shared.
+     */
+    private volatile boolean stateful;
+
+    /**
+     * @return a new template instance created by reflection.
+     */
     public abstract T newInstance();
+
+    /**
+     * The template instance to evaluate with. The instance of a template declared
+     * {@link ITemplate#isStateless() stateless} is created once and shared by all the callers,
+     * a new instance is created for every call otherwise.
+     *
+     * @return the template instance, null if the template can not be instantiated.
+     */
+    public T getTemplateInstance() {
+        T template = sharedInstance;
+        if (null != template) {
+            return template;
+        }
+        if (stateful) {
+            return newInstance();
+        }
+        synchronized (this) {
+            template = sharedInstance;
+            if (null != template) {
+                return template;
+            }
+            template = newInstance();
+            if (null != template) {
+                if (template.isStateless()) {
+                    sharedInstance = template;
+                } else {
+                    stateful = true;
+                }
+            }
+            return template;
+        }
+    }
 }
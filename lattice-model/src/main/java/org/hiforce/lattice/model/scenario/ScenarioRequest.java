@@ -14,4 +14,14 @@ public interface ScenarioRequest extends Serializable {
      * @return the business object in current scenario.
      */
     IBizObject getBizObject();
+
+    /**
+     * The requests of the same business with an equal effectiveness key must have the same
+     * effective templates, so the sorted effective templates can be evaluated once and reused.
+     *
+     * @return the effectiveness key, null means the templates are evaluated for every request.
+     */
+    default Object getEffectivenessKey() {
+        return null;
+    }
 }
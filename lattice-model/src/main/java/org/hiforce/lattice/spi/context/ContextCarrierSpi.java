@@ -0,0 +1,55 @@
+package org.hiforce.lattice.spi.context;
+
+import org.hiforce.lattice.model.context.ContextFrame;
+
+import java.util.function.Supplier;
+
+/**
+ * The carrier of the invoke context frame, which holds the InvokeCache, the BizSessionContext
+ * and the scope entrances of current execution. The ThreadLocal carrier is used by default,
+ * a carrier built on ScopedValue (JDK 21+) can be plugged in via this SPI.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public interface ContextCarrierSpi {
+
+    /**
+     * @return the priority of carrier, the carrier with the highest priority is used.
+     */
+    int getPriority();
+
+    /**
+     * @return whether the carrier is available in current runtime.
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * @return the frame bound to current execution, null if not bound.
+     */
+    ContextFrame current();
+
+    /**
+     * Run the task with the frame bound as current, the previous binding is restored afterwards.
+     *
+     * @param frame the frame to be bound, null means run without frame.
+     */
+    <V> V callWith(ContextFrame frame, Supplier<V> task);
+
+    /**
+     * @return whether the frame can be bound outside {@link #callWith(ContextFrame, Supplier)}.
+     */
+    default boolean isBindable() {
+        return true;
+    }
+
+    /**
+     * Bind the frame to current execution until another binding.
+     *
+     * @param frame the frame to be bound, null means unbind.
+     * @return the previous bound frame.
+     */
+    ContextFrame bind(ContextFrame frame);
+}
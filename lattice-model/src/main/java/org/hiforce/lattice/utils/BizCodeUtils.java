@@ -1,21 +1,23 @@
 package org.hiforce.lattice.utils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * @author Rocky Yu
  * @since 2022/9/19
  */
 public class BizCodeUtils {
 
+    private static final Cache<String, CodePattern> PATTERN_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(4096).build();
+
     public static boolean isCodesMatched(String code, String specificCode) {
 
         if (StringUtils.equals(code, specificCode))
             return true;
-        if (!StringUtils.contains(code, "*"))
+        if (!isPatternCode(code))
             return false;
         return isPatternCodeMatched(code, specificCode);
     }
@@ -23,32 +25,31 @@ public class BizCodeUtils {
     public static boolean isCodeMatched(String code, String specificCode) {
         if (StringUtils.equals(code, specificCode))
             return true;
-        if (!StringUtils.contains(code, "*"))
+        if (!isPatternCode(code))
             return false;
         return isPatternCodeMatched(code, specificCode);
     }
 
     public static boolean isPatternCodeMatched(String code, String specificCode) {
-        String patternStr;
-        if (code.startsWith("*.")) {
-            patternStr = code2PrePattern(code);
-        } else {
-            patternStr = code2Pattern(code);
-        }
-        Pattern pattern = Pattern.compile(patternStr);
-        Matcher matcher = pattern.matcher(specificCode);
-        return matcher.find();
+        return getCodePattern(code).matches(specificCode);
     }
 
-    private static String code2PrePattern(String code) {
-        String pattern = code.replace(".", "\\.");
-        pattern = pattern.replace("*", "[a-zA-Z\\._]*");
-        return pattern + "$";
+    /**
+     * @return the compiled pattern of the wildcard code, compiled once and shared.
+     */
+    public static CodePattern getCodePattern(String code) {
+        CodePattern pattern = PATTERN_CACHE.getIfPresent(code);
+        if (null == pattern) {
+            pattern = CodePattern.compile(code);
+            CodePattern existing = PATTERN_CACHE.asMap().putIfAbsent(code, pattern);
+            if (null != existing) {
+                pattern = existing;
+            }
+        }
+        return pattern;
     }
 
-    private static String code2Pattern(String code) {
-        String pattern = code.replace(".", "\\.");
-        pattern = pattern.replace("*", "[a-zA-Z\\._]*");
-        return "^" + pattern;
+    public static boolean isPatternCode(String code) {
+        return StringUtils.contains(code, "*");
     }
 }
@@ -1,8 +1,6 @@
 package org.hiforce.lattice.utils;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -11,6 +9,8 @@ import org.hiforce.lattice.annotation.model.ExtensionAnnotation;
 import org.hiforce.lattice.model.ability.IBusinessExt;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,7 +25,12 @@ public class BusinessExtUtils {
 
     private static final Map<Class<?>, Set<String>> CODE_MAP = new ConcurrentHashMap<>();
 
-    private static final Table<Class<?>, String, Method> EXT_METHOD_MAP = HashBasedTable.create();
+    /**
+     * The extension methods of the BusinessExt class, the per-class map is published once and never mutated.
+     */
+    private static final Map<Class<?>, Map<String, Method>> EXT_METHOD_MAP = new ConcurrentHashMap<>();
+
+    private static final Map<Method, ExtensionMethodInvoker> EXT_INVOKER_MAP = new ConcurrentHashMap<>();
 
     public static Method getExtensionMethod(IBusinessExt businessExt, String extCode, String scenario) {
         if (null == businessExt) {
@@ -36,7 +41,20 @@ public class BusinessExtUtils {
         }
 
         IBusinessExt subExt = businessExt.getBusinessExtByCode(extCode, scenario);
-        return EXT_METHOD_MAP.get(subExt.getClass(), extCode);
+        Map<String, Method> methods = EXT_METHOD_MAP.get(subExt.getClass());
+        return null == methods ? null : methods.get(extCode);
+    }
+
+    public static ExtensionMethodInvoker getExtensionInvoker(IBusinessExt businessExt, String extCode, String scenario) {
+        Method method = getExtensionMethod(businessExt, extCode, scenario);
+        if (null == method) {
+            return null;
+        }
+        ExtensionMethodInvoker invoker = EXT_INVOKER_MAP.get(method);
+        if (null != invoker) {
+            return invoker;
+        }
+        return EXT_INVOKER_MAP.computeIfAbsent(method, ExtensionMethodInvoker::of);
     }
 
 
@@ -52,6 +70,7 @@ public class BusinessExtUtils {
 
         Set<String> supportedCodes = Sets.newConcurrentHashSet();
         supportedCodes.addAll(distinctSupportCodes(businessExt));
+        Map<String, Method> methods = new HashMap<>();
         try {
             for (Method method : businessExt.getClass().getMethods()) {
                 ExtensionAnnotation annotation = LatticeAnnotationUtils.getExtensionAnnotation(method); // 会一直往上查询
@@ -59,8 +78,7 @@ public class BusinessExtUtils {
                     continue;
                 }
                 if (StringUtils.isNotEmpty(annotation.getCode())) {
-                    EXT_METHOD_MAP.put(key, annotation.getCode(),
-                            MethodUtils.getAccessibleMethod(method));
+                    methods.put(annotation.getCode(), MethodUtils.getAccessibleMethod(method));
                     supportedCodes.add(annotation.getCode());
                 }
 
@@ -68,12 +86,13 @@ public class BusinessExtUtils {
         } catch (Throwable th) {
             log.warn(th.getMessage(), th);
         }
-        if (null == CODE_MAP.get(key)) {
-            CODE_MAP.put(key, supportedCodes);
-        } else {
-            CODE_MAP.get(key).addAll(supportedCodes);
+        // 先发布方法表，再发布扩展点编码，保证读到编码时方法表已可见
+        EXT_METHOD_MAP.putIfAbsent(key, Collections.unmodifiableMap(methods));
+        Set<String> existed = CODE_MAP.putIfAbsent(key, supportedCodes);
+        if (null != existed) {
+            existed.addAll(supportedCodes);
+            return existed;
         }
-
         return supportedCodes;
     }
 
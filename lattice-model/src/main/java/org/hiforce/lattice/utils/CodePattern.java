@@ -0,0 +1,118 @@
+package org.hiforce.lattice.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The compiled wildcard code, e.g. <i>business.*</i> or <i>*.trade</i>. The code is parsed once
+ * into literal segments, the wildcard between them matches letters, '.' and '_' only.
+ * <p>
+ * A code starting with <i>*.</i> matches the tail of the specific code, otherwise the head.
+ * The match results are cached per specific code.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public final class CodePattern {
+
+    private static final int MAX_CACHED_MATCHES = 1024;
+
+    private final String code;
+
+    private final String[] segments;
+
+    /**
+     * Whether the pattern is anchored to the tail of the specific code.
+     */
+    private final boolean suffix;
+
+    private final Map<String, Boolean> matches = new ConcurrentHashMap<>();
+
+    private CodePattern(String code) {
+        this.code = code;
+        this.suffix = code.startsWith("*.");
+        List<String> parts = split(suffix ? code.substring(1) : code);
+        this.segments = parts.toArray(new String[0]);
+    }
+
+    public static CodePattern compile(String code) {
+        return new CodePattern(code);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public boolean matches(String specificCode) {
+        if (null == specificCode) {
+            return false;
+        }
+        Boolean matched = matches.get(specificCode);
+        if (null != matched) {
+            return matched;
+        }
+        matched = doMatch(specificCode);
+        if (matches.size() < MAX_CACHED_MATCHES) {
+            matches.put(specificCode, matched);
+        }
+        return matched;
+    }
+
+    private boolean doMatch(String text) {
+        if (!suffix) {
+            return matchAt(text, 0, 0);
+        }
+        for (int start = 0; start <= text.length(); start++) {
+            if (matchAt(text, 0, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the segment and the following ones match the text, the segment starts at the position.
+     */
+    private boolean matchAt(String text, int index, int position) {
+        String segment = segments[index];
+        if (!text.startsWith(segment, position)) {
+            return false;
+        }
+        position += segment.length();
+        if (index == segments.length - 1) {
+            return !suffix || position == text.length();
+        }
+        for (int next = position; next <= text.length(); next++) {
+            if (matchAt(text, index + 1, next)) {
+                return true;
+            }
+            if (next < text.length() && !isWildcardChar(text.charAt(next))) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWildcardChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '.' || c == '_';
+    }
+
+    private static List<String> split(String code) {
+        List<String> parts = new ArrayList<>(4);
+        int from = 0;
+        int index;
+        while ((index = code.indexOf('*', from)) >= 0) {
+            parts.add(code.substring(from, index));
+            from = index + 1;
+        }
+        parts.add(code.substring(from));
+        return parts;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
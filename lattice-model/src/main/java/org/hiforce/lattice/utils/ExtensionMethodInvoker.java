@@ -0,0 +1,57 @@
+package org.hiforce.lattice.utils;
+
+import lombok.Getter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The invoker of an extension method, built once and dispatched via {@link MethodHandle}.
+ * Falls back to reflection when the method can not be unreflected.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ExtensionMethodInvoker {
+
+    private static final MethodType GENERIC_TYPE =
+            MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    @Getter
+    private final Method method;
+
+    private final MethodHandle handle;
+
+    private ExtensionMethodInvoker(Method method, MethodHandle handle) {
+        this.method = method;
+        this.handle = handle;
+    }
+
+    public static ExtensionMethodInvoker of(Method method) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method)
+                    .asFixedArity()
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(GENERIC_TYPE);
+        } catch (IllegalAccessException ex) {
+            handle = null;
+        }
+        return new ExtensionMethodInvoker(method, handle);
+    }
+
+    public Object invoke(Object target, Object... params) throws Throwable {
+        Object[] args = null == params ? new Object[0] : params;
+        if (null != handle) {
+            return (Object) handle.invokeExact(target, args);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
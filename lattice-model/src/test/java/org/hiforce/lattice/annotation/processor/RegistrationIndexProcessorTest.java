@@ -0,0 +1,107 @@
+package org.hiforce.lattice.annotation.processor;
+
+import org.hiforce.lattice.utils.ServicesFileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class RegistrationIndexProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndexFiles() throws IOException {
+        File output = folder.newFolder("classes");
+        compile(output,
+                source("test.index.ModelExt",
+                        "public interface ModelExt extends org.hiforce.lattice.model.ability.IBusinessExt {}"),
+                source("test.index.ModelExtImpl",
+                        "public abstract class ModelExtImpl implements ModelExt {"
+                                + " public static class Inner implements ModelExt {"
+                                + " public ModelExt getBusinessExtByCode(String c, String s) { return null; }"
+                                + " public java.util.List getAllSubBusinessExt() { return null; } } }"),
+                source("test.index.Plain", "public class Plain {}"),
+                source("test.index.PlainEnum", "public enum PlainEnum { A }"));
+
+        assertEquals(set("test.index.ModelExt", "test.index.ModelExtImpl"),
+                readIndex(output, RegistrationIndexProcessor.INDEX_RESOURCE));
+        // 只索引顶层类，与类路径扫描一致
+        assertEquals(set("test.index.ModelExt", "test.index.ModelExtImpl", "test.index.Plain", "test.index.PlainEnum"),
+                readIndex(output, RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE));
+    }
+
+    @Test
+    public void testIncrementalCompilationMerged() throws IOException {
+        File output = folder.newFolder("classes");
+        compile(output, source("test.index.ModelExt",
+                "public interface ModelExt extends org.hiforce.lattice.model.ability.IBusinessExt {}"));
+        compile(output, source("test.index.Plain", "public class Plain {}"));
+
+        assertEquals(set("test.index.ModelExt"), readIndex(output, RegistrationIndexProcessor.INDEX_RESOURCE));
+        assertEquals(set("test.index.ModelExt", "test.index.Plain"),
+                readIndex(output, RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE));
+    }
+
+    @Test
+    public void testNoModelClasses() throws IOException {
+        File output = folder.newFolder("classes");
+        compile(output, source("test.index.Plain", "public class Plain {}"));
+        assertTrue(readIndex(output, RegistrationIndexProcessor.INDEX_RESOURCE).isEmpty());
+        assertEquals(set("test.index.Plain"), readIndex(output, RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE));
+    }
+
+    private static void compile(File output, JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler);
+        List<String> options = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-d", output.getAbsolutePath(),
+                "-processor", RegistrationIndexProcessor.class.getName()));
+        assertTrue(compiler.getTask(null, null, null, options, null, Arrays.asList(sources)).call());
+    }
+
+    private static Set<String> readIndex(File output, String resource) throws IOException {
+        File file = new File(output, resource);
+        assertTrue(file.getPath(), file.exists());
+        return ServicesFileUtils.readServiceFile(new FileInputStream(file));
+    }
+
+    private static JavaFileObject source(String className, String body) {
+        String packageName = className.substring(0, className.lastIndexOf('.'));
+        String content = "package " + packageName + ";\n" + body;
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+}
@@ -0,0 +1,93 @@
+package org.hiforce.lattice.cache.invoke;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class InvokeCacheTest {
+
+    @Before
+    public void setUp() {
+        InvokeCache.initInvokeCache();
+    }
+
+    @After
+    public void tearDown() {
+        InvokeCache.forceClear();
+    }
+
+    @Test
+    public void testBatchGetOrLoadKeepsDuplicateIds() {
+        List<List<Object>> loads = new ArrayList<>();
+        List<String> loaded = InvokeCache.instance().batchGetOrLoad(String.class, Arrays.asList(1, 2, 1),
+                ids -> load(loads, ids));
+        assertEquals(Arrays.asList("v1", "v2", "v1"), loaded);
+
+        // 全部命中时同样按 ids 的顺序返回
+        List<String> cached = InvokeCache.instance().batchGetOrLoad(String.class, Arrays.asList(2, 1, 2, 1),
+                ids -> load(loads, ids));
+        assertEquals(Arrays.asList("v2", "v1", "v2", "v1"), cached);
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    public void testBatchGetOrLoadOnlyMissingIds() {
+        List<List<Object>> loads = new ArrayList<>();
+        InvokeCache.instance().batchGetOrLoad(String.class, Arrays.asList(1, 2), ids -> load(loads, ids));
+        List<String> result = InvokeCache.instance().batchGetOrLoad(String.class, Arrays.asList(3, 1, 3, 2),
+                ids -> load(loads, ids));
+        assertEquals(Arrays.asList("v3", "v1", "v3", "v2"), result);
+        assertEquals(Arrays.asList(3, 3), loads.get(1));
+    }
+
+    @Test
+    public void testBatchGetPartial() {
+        InvokeCache.instance().put(String.class, 1, "v1");
+        InvokeCache.BatchResult<String> partial =
+                InvokeCache.instance().batchGetPartial(String.class, Arrays.asList(1, 2));
+        assertEquals("v1", partial.getHits().get(1));
+        assertEquals(Arrays.asList(2), partial.getMissingIds());
+        assertFalse(partial.isComplete());
+    }
+
+    @Test
+    public void testRecycledCacheNotShared() {
+        InvokeCache previous = InvokeCache.instance();
+        previous.put(String.class, 1, "v1");
+        InvokeCache.forceClear();
+        InvokeCache.initInvokeCache();
+
+        // 下一次执行获取新的实例，旧实例不再读写缓存
+        InvokeCache next = InvokeCache.instance();
+        assertNotSame(previous, next);
+        assertNull(next.get(String.class, 1));
+        previous.put(String.class, 2, "v2");
+        assertNull(next.get(String.class, 2));
+        assertNull(previous.get(String.class, 2));
+        next.put(String.class, 3, "v3");
+        assertNull(previous.get(String.class, 3));
+        assertEquals("v3", next.get(String.class, 3));
+    }
+
+    private static List<String> load(List<List<Object>> loads, List<Object> ids) {
+        loads.add(new ArrayList<>(ids));
+        List<String> values = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            values.add("v" + id);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,166 @@
+package org.hiforce.lattice.model.business;
+
+import org.hiforce.lattice.model.context.BizSessionContext;
+import org.hiforce.lattice.model.register.TemplateSpec;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class BizSessionKeyTest {
+
+    @Test
+    public void testEquality() {
+        assertKeyEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of("business.a", 1L));
+        assertKeyEquals(BizSessionKey.of("business.a", 1), BizSessionKey.of("business.a", 1));
+        assertKeyEquals(BizSessionKey.of("business.a", "order-1"), BizSessionKey.of("business.a", "order-1"));
+        assertKeyEquals(BizSessionKey.of("business.a", null), BizSessionKey.of("business.a", null));
+        assertKeyEquals(BizSessionKey.of(null, 1L), BizSessionKey.of(null, 1L));
+
+        assertNotEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of("business.b", 1L));
+        assertNotEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of("business.a", 2L));
+        assertNotEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of("business.a", null));
+        assertNotEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of(null, 1L));
+    }
+
+    @Test
+    public void testBizIdTypes() {
+        // 与 BizContext 一致，Long 与 Integer 类型的 bizId 不相等
+        assertNotEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of("business.a", 1));
+        assertNotEquals(BizSessionKey.of("business.a", 1), BizSessionKey.of("business.a", 1L));
+        assertNotEquals(BizSessionKey.of("business.a", 1L), BizSessionKey.of("business.a", "1"));
+        assertNotEquals(BizSessionKey.of("business.a", 0L), BizSessionKey.of("business.a", "order-1"));
+        assertNotEquals(context("business.a", 1L), context("business.a", 1));
+    }
+
+    @Test
+    public void testCodeId() {
+        assertEquals(0, BizSessionKey.codeIdOf(null));
+        int codeId = BizSessionKey.codeIdOf("business.a");
+        assertTrue(codeId > 0);
+        assertEquals(codeId, BizSessionKey.codeIdOf(new String("business.a")));
+        assertNotEquals(codeId, BizSessionKey.codeIdOf("business.b"));
+        assertEquals(codeId, BizSessionKey.of("business.a", 1L).getCodeId());
+    }
+
+    @Test
+    public void testClearCache() {
+        BizSessionKey key = BizSessionKey.of("business.a", 1L);
+        int codeId = key.getCodeId();
+        BizSessionKey.clearCache();
+        // 清理后重新分配的 id 不同，但 key 仍然相等
+        assertNotEquals(codeId, BizSessionKey.codeIdOf("business.a"));
+        assertKeyEquals(key, BizSessionKey.of("business.a", 1L));
+        assertNotEquals(key, BizSessionKey.of("business.b", 1L));
+    }
+
+    @Test
+    public void testCodeIdsBounded() {
+        BizSessionKey.clearCache();
+        try {
+            for (int i = 0; i < BizSessionKey.MAX_CODES; i++) {
+                assertTrue(BizSessionKey.codeIdOf("business.bounded." + i) > 0);
+            }
+            assertEquals(BizSessionKey.OVERFLOW, BizSessionKey.codeIdOf("business.overflow"));
+            BizSessionKey key = BizSessionKey.of("business.overflow", 1L);
+            assertKeyEquals(key, BizSessionKey.of("business.overflow", 1L));
+            assertNotEquals(key, BizSessionKey.of("business.overflow.b", 1L));
+            assertNotEquals(key, BizSessionKey.of("business.overflow", 2L));
+        } finally {
+            BizSessionKey.clearCache();
+        }
+        assertTrue(BizSessionKey.codeIdOf("business.overflow") > 0);
+    }
+
+    @Test
+    public void testBizContextSessionKey() {
+        BizContext context = context("business.a", 1L);
+        assertSame(context.getSessionKey(), context.getSessionKey());
+        assertEquals(context.getSessionKey(), context("business.a", 1L).getSessionKey());
+        assertNotEquals(context.getSessionKey(), context("business.a", 1).getSessionKey());
+    }
+
+    @Test
+    public void testBizContextEqualsAndHashCode() {
+        assertEquals(context("business.a", 1L), context("business.a", 1L));
+        assertEquals(context("business.a", 1L).hashCode(), context("business.a", 1L).hashCode());
+        assertNotEquals(context("business.a", 1L), context("business.b", 1L));
+        assertNotEquals(context("business.a", null), context("business.a", null));
+
+        BizContext context = context("business.a", 1L);
+        assertEquals(context.hashCode(), context.hashCode());
+        assertEquals(context("business.a", null).hashCode(), context("business.a", null).hashCode());
+    }
+
+    @Test
+    public void testBizContextToString() {
+        BizContext context = context("business.a", 1L);
+        assertEquals(String.format("%s-%s", "business.a", 1L), context.toString());
+        assertEquals(String.format("[BizCode: %s, BizId: %s]", "business.a", 1L), context.getBizInfo());
+        assertEquals("null-null", context(null, null).toString());
+    }
+
+    @Test
+    public void testSessionLookupBySessionKey() {
+        BizContext context = context("business.a", 1L);
+        IBizObject bizObject = () -> context;
+        List<TemplateSpec<? extends ITemplate>> templates = Collections.emptyList();
+        Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> effective = new IdentityHashMap<>();
+        effective.put(bizObject, templates);
+        BizSessionContext sessionContext = BizSessionContext.init();
+        try {
+            sessionContext.putEffectiveTemplates(effective);
+            assertSame(templates, sessionContext.getEffectiveTemplates(bizObject));
+            // 不同的业务对象实例，以 bizCode 和 bizId 匹配
+            assertSame(templates, sessionContext.getEffectiveTemplates(() -> context("business.a", 1L)));
+            assertNull(sessionContext.getEffectiveTemplates(() -> context("business.a", 1)));
+            assertNull(sessionContext.getEffectiveTemplates(() -> context("business.b", 1L)));
+            // 按 BizContext 字符串查找的调用方仍然可以获取
+            assertSame(templates, sessionContext.getEffectiveTemplates().get(context.toString()));
+
+            // 调用方放入的模板仍然按字符串查找
+            List<TemplateSpec<? extends ITemplate>> putTemplates = Collections.emptyList();
+            sessionContext.getEffectiveTemplates().put(context("business.c", 1L).toString(), putTemplates);
+            assertSame(putTemplates, sessionContext.getEffectiveTemplates(() -> context("business.c", 1)));
+        } finally {
+            BizSessionContext.destroy();
+        }
+    }
+
+    private static void assertKeyEquals(BizSessionKey key, BizSessionKey other) {
+        assertEquals(key, other);
+        assertEquals(key.hashCode(), other.hashCode());
+    }
+
+    private static BizContext context(String bizCode, Serializable bizId) {
+        return new BizContext() {
+            @Override
+            public Serializable getBizId() {
+                return bizId;
+            }
+
+            @Override
+            public String getBizCode() {
+                return bizCode;
+            }
+
+            @Override
+            public String getScenario() {
+                return null;
+            }
+        };
+    }
+}
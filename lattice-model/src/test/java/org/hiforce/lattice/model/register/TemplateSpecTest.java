@@ -0,0 +1,95 @@
+package org.hiforce.lattice.model.register;
+
+import org.hiforce.lattice.model.business.ITemplate;
+import org.hiforce.lattice.model.business.TemplateType;
+import org.hiforce.lattice.model.scenario.ScenarioRequest;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class TemplateSpecTest {
+
+    @Test
+    public void testStatelessTemplateShared() {
+        TestTemplateSpec spec = new TestTemplateSpec(true);
+        ITemplate template = spec.getTemplateInstance();
+        assertSame(template, spec.getTemplateInstance());
+        assertSame(template, spec.getTemplateInstance());
+        assertEquals(1, spec.created.get());
+    }
+
+    @Test
+    public void testStatefulTemplateNotShared() {
+        TestTemplateSpec spec = new TestTemplateSpec(false);
+        ITemplate template = spec.getTemplateInstance();
+        assertNotSame(template, spec.getTemplateInstance());
+        assertNotSame(template, spec.getTemplateInstance());
+        assertEquals(3, spec.created.get());
+    }
+
+    @Test
+    public void testTemplateNotInstantiated() {
+        TestTemplateSpec spec = new TestTemplateSpec(null);
+        assertNull(spec.getTemplateInstance());
+        assertNull(spec.getTemplateInstance());
+    }
+
+    private static class TestTemplateSpec extends TemplateSpec<ITemplate> {
+
+        private final Boolean stateless;
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        TestTemplateSpec(Boolean stateless) {
+            this.stateless = stateless;
+        }
+
+        @Override
+        public ITemplate newInstance() {
+            if (null == stateless) {
+                return null;
+            }
+            created.incrementAndGet();
+            return new ITemplate() {
+                @Override
+                public String getCode() {
+                    return "template.test";
+                }
+
+                @Override
+                public TemplateType getType() {
+                    return TemplateType.BUSINESS;
+                }
+
+                @Override
+                public boolean isEffect(ScenarioRequest request) {
+                    return true;
+                }
+
+                @Override
+                public Long getInternalId() {
+                    return 1L;
+                }
+
+                @Override
+                public boolean isPatternTemplateCode() {
+                    return false;
+                }
+
+                @Override
+                public boolean isStateless() {
+                    return stateless;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.hiforce.lattice.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The compiled wildcard code must match exactly the codes the regular expression built from
+ * the code did, see {@link #regexMatched(String, String)}.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class CodePatternTest {
+
+    private static final char[] CODE_CHARS = {'a', 'b', 'C', '.', '_', '1', '-'};
+
+    @Test
+    public void testPrefixPattern() {
+        assertMatched("business.*", "business.a", true);
+        assertMatched("business.*", "business.", true);
+        assertMatched("business.*", "business.a.b_c", true);
+        assertMatched("business.*", "business.a1", true);
+        assertMatched("business.*", "product.a", false);
+        assertMatched("business*", "businessA", true);
+        assertMatched("b*.a", "business.a", true);
+        assertMatched("b*.a", "b1.a", false);
+        assertMatched("*", "", true);
+        assertMatched("*", "1", true);
+    }
+
+    @Test
+    public void testSuffixPattern() {
+        assertMatched("*.trade", "business.trade", true);
+        assertMatched("*.trade", "1.trade", true);
+        assertMatched("*.trade", "business.trade.x", false);
+        assertMatched("*.trade", "trade", false);
+        assertMatched("*.a*", "x.a.b", true);
+        assertMatched("*.a*", "x.a1", false);
+    }
+
+    @Test
+    public void testSameResultsAsRegex() {
+        Random random = new Random(20261016L);
+        for (int i = 0; i < 20000; i++) {
+            String code = randomCode(random, true);
+            String specificCode = randomCode(random, false);
+            assertMatched(code, specificCode, regexMatched(code, specificCode));
+        }
+    }
+
+    @Test
+    public void testBizCodeUtils() {
+        assertTrue(BizCodeUtils.isCodesMatched("business.a", "business.a"));
+        assertFalse(BizCodeUtils.isCodesMatched("business.a", "business.b"));
+        assertTrue(BizCodeUtils.isCodesMatched("business.*", "business.b"));
+        assertFalse(BizCodeUtils.isCodesMatched("business.*", null));
+        assertTrue(BizCodeUtils.isPatternCode("*.a"));
+        assertFalse(BizCodeUtils.isPatternCode(null));
+        assertSame(BizCodeUtils.getCodePattern("business.*"), BizCodeUtils.getCodePattern("business.*"));
+    }
+
+    private static void assertMatched(String code, String specificCode, boolean expected) {
+        String message = code + " -> " + specificCode;
+        assertEquals(message, expected, CodePattern.compile(code).matches(specificCode));
+        // 第二次匹配命中缓存的结果
+        CodePattern pattern = BizCodeUtils.getCodePattern(code);
+        assertEquals(message, expected, pattern.matches(specificCode));
+        assertEquals(message, expected, pattern.matches(specificCode));
+    }
+
+    private static String randomCode(Random random, boolean wildcard) {
+        int length = random.nextInt(7);
+        StringBuilder builder = new StringBuilder(length + 2);
+        if (wildcard && random.nextInt(3) == 0) {
+            builder.append("*.");
+        }
+        for (int i = 0; i < length; i++) {
+            if (wildcard && random.nextInt(4) == 0) {
+                builder.append('*');
+            } else {
+                builder.append(CODE_CHARS[random.nextInt(CODE_CHARS.length)]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The wildcard code matching before {@link CodePattern}, the code was compiled to a
+     * regular expression on every call.
+     */
+    private static boolean regexMatched(String code, String specificCode) {
+        String pattern = code.replace(".", "\\.").replace("*", "[a-zA-Z\\._]*");
+        pattern = code.startsWith("*.") ? pattern + "$" : "^" + pattern;
+        return Pattern.compile(pattern).matcher(specificCode).find();
+    }
+}
@@ -5,11 +5,11 @@ import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.model.ability.IBusinessExt;
 import org.hiforce.lattice.model.register.RealizationSpec;
 import org.hiforce.lattice.remote.client.LatticeRemoteInvoker;
-import org.hiforce.lattice.runtime.Lattice;
+import org.hiforce.lattice.runtime.ability.register.TemplateRegister;
 import org.hiforce.lattice.utils.BusinessExtUtils;
+import org.hiforce.lattice.utils.ExtensionMethodInvoker;
 
 import java.io.Serializable;
-import java.lang.reflect.Method;
 
 /**
  * @author Rocky Yu
@@ -22,11 +22,13 @@ public class LatticeRemoteInvokerImpl implements LatticeRemoteInvoker {
     @SuppressWarnings("all")
     public Serializable invoke(String bizCode, String scenario, String extCode, Object... params) {
         log.info("[Lattice]Remote Invoked, bizCode={}, scenario={}, extCode={} ", bizCode, scenario, extCode);
-        RealizationSpec realizationSpec = Lattice.getInstance().getAllRealizations().stream()
-                .filter(p -> StringUtils.equals(bizCode, p.getCode()))
-                .filter(p -> isScenarioMatched(scenario, p.getScenario()))
-                .filter(p -> p.getExtensionCodes().contains(extCode))
-                .findFirst().orElse(null);
+        RealizationSpec realizationSpec = null;
+        for (RealizationSpec spec : TemplateRegister.getInstance().getSnapshot().getRealizationsByExtCode(extCode)) {
+            if (StringUtils.equals(bizCode, spec.getCode()) && isScenarioMatched(scenario, spec.getScenario())) {
+                realizationSpec = spec;
+                break;
+            }
+        }
         if (null == realizationSpec) {
             log.warn("[Lattice] The realization not found. bizCode={}, scenario={}, extCode={} ", bizCode, scenario, extCode);
             return null;
@@ -36,13 +38,17 @@ public class LatticeRemoteInvokerImpl implements LatticeRemoteInvoker {
             log.debug("[Lattice] The BusinessExt={}, bizCode={}, scenario={}, extCode={}",
                     businessExt, bizCode, scenario, extCode);
 
-            Method method = BusinessExtUtils.getExtensionMethod(businessExt, extCode, scenario);
-            Serializable value = (Serializable) method.invoke(businessExt, params);
+            ExtensionMethodInvoker invoker = BusinessExtUtils.getExtensionInvoker(businessExt, extCode, scenario);
+            Serializable value = (Serializable) invoker.invoke(businessExt, params);
             log.debug("[Lattice] Remote invoke bizCode={}, scenario={}, extCode={}, result={}",
                     bizCode, scenario, extCode,
                     null == value ? null : value.toString());
             return value;
-        } catch (Exception e) {
+        } catch (Throwable e) {
+            // Error 如 OOM、StackOverflowError 不包装，直接抛出
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
             log.info("[Lattice] Remote invoke runtime exception occurred. ex=bizCode={}, scenario={}, extCode={}, ex={}",
                     bizCode, scenario, extCode, e.getMessage());
             throw new RuntimeException(e);
@@ -7,6 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.dubbo.config.ApplicationConfig;
 import org.apache.dubbo.config.ReferenceConfig;
 import org.apache.dubbo.config.RegistryConfig;
+import org.apache.dubbo.rpc.RpcContext;
 import org.hiforce.lattice.exception.LatticeRuntimeException;
 import org.hiforce.lattice.extension.ExtensionRemoteRunner;
 import org.hiforce.lattice.extension.ExtensionRunnerType;
@@ -25,6 +26,8 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * @author Rocky Yu
@@ -35,7 +38,7 @@ import java.util.Map;
 public class DubboExtensionRunner<R> extends ExtensionRemoteRunner<R> {
 
     private static Map<DubboInvokeCacheKey, LatticeRemoteInvoker>
-            INVOKE_CACHE = Maps.newHashMap();
+            INVOKE_CACHE = Maps.newConcurrentMap();
 
     @Getter
     @Setter
@@ -57,6 +60,23 @@ public class DubboExtensionRunner<R> extends ExtensionRemoteRunner<R> {
         super(extensionCode);
     }
 
+    /**
+     * The built runner is cached unbound, the bound copy carries the ability of the invocation.
+     */
+    @Override
+    public DubboExtensionRunner<R> bind(IAbility ability) {
+        if (null == ability || this.ability == ability) {
+            return this;
+        }
+        DubboExtensionRunner<R> runner = new DubboExtensionRunner<>(getExtensionCode());
+        runner.setModel(getModel());
+        runner.setRemoteExtension(remoteExtension);
+        runner.setTemplate(template);
+        runner.setScenario(scenario);
+        runner.setAbility(ability);
+        return runner;
+    }
+
 
     @Override
     public Object runFirstMatched(IBizObject bizObject, ExtensionCallback callback, RunnerExecuteResult executeResult) {
@@ -81,9 +101,11 @@ public class DubboExtensionRunner<R> extends ExtensionRemoteRunner<R> {
     }
 
     private Object invoke(List<Object> params) {
-        String bizCode = template.getCode();
-        String scenario = getScenario();
+        return doInvoke(getRemoteInvoker(), params);
+    }
 
+    private LatticeRemoteInvoker getRemoteInvoker() {
+        String bizCode = template.getCode();
         DubboInvokeCacheKey key = new DubboInvokeCacheKey(bizCode, scenario, getExtensionCode());
 
         LatticeRemoteInvoker remoteInvoker = INVOKE_CACHE.get(key);
@@ -101,6 +123,12 @@ public class DubboExtensionRunner<R> extends ExtensionRemoteRunner<R> {
             remoteInvoker = reference.get();
             INVOKE_CACHE.put(key, remoteInvoker);
         }
+        return remoteInvoker;
+    }
+
+    private Object doInvoke(LatticeRemoteInvoker remoteInvoker, List<Object> params) {
+        String bizCode = template.getCode();
+        String scenario = getScenario();
         log.info("[Lattice-Remote] remote invoke bizCode: {}, extCode: {}, params: {} ",
                 bizCode, getExtensionCode(), (null == params ? null : JacksonUtils.serializeWithoutException(params)));
         return remoteInvoker.invoke(bizCode, scenario,
@@ -113,6 +141,37 @@ public class DubboExtensionRunner<R> extends ExtensionRemoteRunner<R> {
         return Collections.singletonList(runFirstMatched(bizObject, callback, executeResult));
     }
 
+    /**
+     * Invoke the remote extension via the Dubbo async call, without blocking the calling thread.
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<List> runAllMatchedAsync(IBizObject bizObject, ExtensionCallback callback,
+                                                      RunnerExecuteResult executeResult) {
+        List<Object> extParams = ability.getContext().getInvokeParams();
+        executeResult.setRunnerType(getType());
+        executeResult.setExecute(true);
+        CompletableFuture<Object> future;
+        try {
+            LatticeRemoteInvoker remoteInvoker = getRemoteInvoker();
+            future = RpcContext.getContext().asyncCall(() -> doInvoke(remoteInvoker, extParams));
+        } catch (Exception ex) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(ex);
+        }
+        return future.handle((result, th) -> {
+            if (null == th) {
+                return Collections.singletonList(result);
+            }
+            Throwable cause = th instanceof CompletionException && null != th.getCause() ? th.getCause() : th;
+            log.error(cause.getMessage(), cause);
+            if (remoteExtension.isStrongDependency()) {
+                throw new LatticeRuntimeException("LATTICE-RMI-DUBBO-0001", cause.getMessage());
+            }
+            return Collections.singletonList(null);
+        });
+    }
+
     @Override
     public ExtensionRunnerType getType() {
         return ExtensionRunnerType.RMI;
@@ -5,7 +5,6 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.extension.ExtensionRemoteRunner;
 import org.hiforce.lattice.extension.RemoteExtensionRunnerBuilder;
-import org.hiforce.lattice.model.ability.IAbility;
 import org.hiforce.lattice.model.register.TemplateSpec;
 import org.hiforce.lattice.remote.client.LatticeRemoteClient;
 import org.hiforce.lattice.remote.client.model.RemoteBusiness;
@@ -21,9 +20,7 @@ import org.springframework.stereotype.Service;
 @SuppressWarnings("all")
 public class DubboRunnerBuilder implements RemoteExtensionRunnerBuilder {
     @Override
-    public <R> ExtensionRemoteRunner<R> build(IAbility ability, TemplateSpec templateSpec, String extCode, String scenario) {
-
-        String bizCode = ability.getContext().getBizCode();
+    public <R> ExtensionRemoteRunner<R> build(String bizCode, TemplateSpec templateSpec, String extCode, String scenario) {
 
         RemoteBusiness remoteBusiness = LatticeRemoteClient.getInstance().getSupportRemoteBusinessList().stream()
                 .filter(p -> StringUtils.equals(p.getBizCode(), bizCode))
@@ -35,7 +32,7 @@ public class DubboRunnerBuilder implements RemoteExtensionRunnerBuilder {
         if (remoteBusiness.isForceSupportAllCodes()) {
             log.info("[Lattice-Remote] Force build the remote invoke runner for bizCode: {}", bizCode);
             return buildDubboExtensionRunner(RemoteExtension.of(extCode, true),
-                    ability, templateSpec, extCode, scenario);
+                    templateSpec, extCode, scenario);
         }
         if (CollectionUtils.isEmpty(remoteBusiness.getExtensions())) {
             log.debug("[Lattice-Remote] Won't build remote invoke runner " +
@@ -52,15 +49,14 @@ public class DubboRunnerBuilder implements RemoteExtensionRunnerBuilder {
             return null;
         }
         log.debug("[Lattice-Remote] Create the remote runner for bizCode: {}, extCode: {}", bizCode, extCode);
-        return buildDubboExtensionRunner(extension, ability, templateSpec, extCode, scenario);
+        return buildDubboExtensionRunner(extension, templateSpec, extCode, scenario);
     }
 
     private <R> DubboExtensionRunner<R> buildDubboExtensionRunner(
             RemoteExtension extension,
-            IAbility ability, TemplateSpec templateSpec, String extCode, String scenario) {
+            TemplateSpec templateSpec, String extCode, String scenario) {
         DubboExtensionRunner<R> runner = new DubboExtensionRunner<R>(extCode);
         runner.setRemoteExtension(extension);
-        runner.setAbility(ability);
         runner.setTemplate(templateSpec);
         runner.setScenario(scenario);
         return runner;
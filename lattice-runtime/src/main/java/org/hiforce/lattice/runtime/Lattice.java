@@ -29,9 +29,10 @@ import org.hiforce.lattice.runtime.cache.config.BusinessConfigCache;
 import org.hiforce.lattice.runtime.spi.LatticeRuntimeSpiFactory;
 import org.hiforce.lattice.runtime.utils.ClassLoaderUtil;
 import org.hiforce.lattice.runtime.utils.ClassPathScanHandler;
+import org.hiforce.lattice.runtime.utils.RegistrationIndex;
+import org.hiforce.lattice.spi.LatticeAnnotationSpiFactory;
 import org.hiforce.lattice.spi.classloader.CustomClassLoaderSpi;
 import org.hiforce.lattice.spi.classloader.LatticeClassLoader;
-import org.hiforce.lattice.utils.BizCodeUtils;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -39,6 +40,11 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -73,6 +79,20 @@ public class Lattice {
     @Getter
     private final List<AbilitySpec> registeredAbilities = Lists.newArrayList();
 
+    private volatile Map<String, AbilitySpec> abilitySpecIndex = Collections.emptyMap();
+
+    public static final String PARALLEL_STARTUP_PROPERTY = "lattice.startup.parallel";
+
+    private static final List<String> STARTUP_SPI_NAMES = Collections.unmodifiableList(Arrays.asList(
+            IAbility.class.getName(), IBusinessExt.class.getName(), IBusiness.class.getName(),
+            IUseCase.class.getName(), IProduct.class.getName()));
+
+    /**
+     * The elapsed milliseconds of each stage of the last start.
+     */
+    @Getter
+    private volatile Map<String, Long> startupTimings = Collections.emptyMap();
+
 
     @Getter
     private final LatticeRuntimeCache runtimeCache = (LatticeRuntimeCache) LatticeCacheFactory.getInstance()
@@ -83,9 +103,7 @@ public class Lattice {
     }
 
     public AbilitySpec getAbilitySpecByCode(String code) {
-        return registeredAbilities.stream()
-                .filter(p -> StringUtils.equals(code, p.getCode()))
-                .findFirst().orElse(null);
+        return null == code ? null : abilitySpecIndex.get(code);
     }
 
     public static Lattice getInstance() {
@@ -95,23 +113,145 @@ public class Lattice {
         return instance;
     }
 
+    /**
+     * Start the lattice in stages. The SPI files are read once, the abilities are registered
+     * in parallel with the realizations and templates, which depend on the realizations.
+     * The parallel startup can be disabled with the system property {@code lattice.startup.parallel}.
+     */
     public final void start() {
-        initLatticeClassLoader();
-        // 注册能力实例
-        registerAbilities();//Register the Ability Instances during runtime.
-        // 注册能力实现（扩展点）
-        registerRealizations();//Register the business extension realization during runtime.
-        // 注册业务
-        registerBusinesses();
-        // 注册用例
-        registerUseCases();
-        // 注册产品
-        registerProducts();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        long begin = System.nanoTime();
+        runStage(timings, "classLoader", this::initLatticeClassLoader);
+        if (Boolean.parseBoolean(System.getProperty(PARALLEL_STARTUP_PROPERTY, "true"))) {
+            registerInParallel(timings);
+        } else {
+            Map<String, Set<Class>> providers = callStage(timings, "loadSpi", () -> loadServiceProviders(null));
+            // 注册能力实例
+            runStage(timings, "abilities", () -> registerAbilities(providers.get(IAbility.class.getName())));
+            registerTemplates(timings, providers);
+        }
         // 构建业务配置
-        buildBusinessConfig();
+        runStage(timings, "businessConfig", this::buildBusinessConfig);
         // 初始化缓存，包括运行时（extension缓存构造）
-        initLatticeCache();
+        runStage(timings, "cache", this::initLatticeCache);
         initialized = true;
+        timings.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        startupTimings = Collections.unmodifiableMap(timings);
+        log.info("[Lattice] started, stage timings(ms): {}", startupTimings);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void registerInParallel(Map<String, Long> timings) {
+        // 预先初始化SPI工厂，避免并行阶段并发地懒加载
+        warmUpSpiFactories();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            Map<String, Set<Class>> providers = callStage(timings, "loadSpi", () -> loadServiceProviders(pool));
+            Map<String, Long> abilityTimings = new LinkedHashMap<>();
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            // 能力的注册与模板的注册互不依赖
+            CompletableFuture<Void> abilities = CompletableFuture.runAsync(() -> {
+                ClassLoader origin = Thread.currentThread().getContextClassLoader();
+                Thread.currentThread().setContextClassLoader(contextClassLoader);
+                try {
+                    runStage(abilityTimings, "abilities", () -> registerAbilities(providers.get(IAbility.class.getName())));
+                } finally {
+                    Thread.currentThread().setContextClassLoader(origin);
+                }
+            }, pool);
+            registerTemplates(timings, providers);
+            try {
+                abilities.join();
+            } catch (CompletionException ex) {
+                throw unwrap(ex);
+            }
+            timings.putAll(abilityTimings);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void registerTemplates(Map<String, Long> timings, Map<String, Set<Class>> providers) {
+        // 注册能力实现（扩展点），业务、用例和产品依赖已注册的扩展实现
+        runStage(timings, "realizations", () -> TemplateRegister.getInstance()
+                .registerRealizations(providers.get(IBusinessExt.class.getName())));
+        // 注册业务
+        runStage(timings, "businesses", () -> TemplateRegister.getInstance()
+                .registerBusinesses(providers.get(IBusiness.class.getName())));
+        // 注册用例
+        runStage(timings, "useCases", () -> TemplateRegister.getInstance()
+                .registerUseCases(providers.get(IUseCase.class.getName())));
+        // 注册产品
+        runStage(timings, "products", () -> TemplateRegister.getInstance()
+                .registerProducts(providers.get(IProduct.class.getName())));
+    }
+
+    /**
+     * Read the SPI files of the lattice components once, in parallel if the pool is present.
+     *
+     * @return the provider classes keyed by the SPI class name.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Map<String, Set<Class>> loadServiceProviders(ForkJoinPool pool) {
+        Map<String, Set<Class>> providers = new HashMap<>(STARTUP_SPI_NAMES.size() * 2);
+        if (null == pool) {
+            STARTUP_SPI_NAMES.forEach(p -> providers.put(p, getServiceProviderClasses(p)));
+            return providers;
+        }
+        ClassLoader originLoader = Lattice.getInstance().getLatticeClassLoader();
+        ClassLoader classLoader = null == originLoader ? Thread.currentThread().getContextClassLoader() : originLoader;
+        Map<String, CompletableFuture<Set<Class>>> futures = new LinkedHashMap<>();
+        for (String spiClassName : STARTUP_SPI_NAMES) {
+            futures.put(spiClassName, CompletableFuture.supplyAsync(
+                    () -> getServiceProviderClasses(spiClassName, classLoader), pool));
+        }
+        try {
+            futures.forEach((k, v) -> providers.put(k, v.join()));
+        } catch (CompletionException ex) {
+            throw unwrap(ex);
+        }
+        return providers;
+    }
+
+    private static void warmUpSpiFactories() {
+        LatticeAnnotationSpiFactory annotationSpiFactory = LatticeAnnotationSpiFactory.getInstance();
+        annotationSpiFactory.getAbilityAnnotationParsers();
+        annotationSpiFactory.getExtensionAnnotationParsers();
+        annotationSpiFactory.getRealizationAnnotationParsers();
+        annotationSpiFactory.getBusinessAnnotationParsers();
+        annotationSpiFactory.getUseCaseAnnotationParsers();
+        annotationSpiFactory.getProductAnnotationParsers();
+        annotationSpiFactory.getPriorityAnnotationParsers();
+        annotationSpiFactory.getScanSkipAnnotationParsers();
+        LatticeRuntimeSpiFactory.getInstance().getRunnerCollectionBuilder();
+    }
+
+    private static RuntimeException unwrap(CompletionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new LatticeRuntimeException(cause);
+    }
+
+    private static void runStage(Map<String, Long> timings, String stage, Runnable runnable) {
+        callStage(timings, stage, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    private static <T> T callStage(Map<String, Long> timings, String stage, Supplier<T> supplier) {
+        long begin = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            timings.put(stage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        }
     }
 
     public void initLatticeClassLoader() {
@@ -129,6 +269,7 @@ public class Lattice {
     public final void clear() {
         runtimeCache.clear();
         registeredAbilities.clear();
+        abilitySpecIndex = Collections.emptyMap();
         TemplateRegister.getInstance().clear();
         AbilityCache.getInstance().clear();
         initialized = false;
@@ -143,6 +284,7 @@ public class Lattice {
         getRuntimeCache().init();
         initErrorMessageCode();
         ClassPathScanHandler.clearCache();
+        RegistrationIndex.clearCache();
     }
 
     private void initErrorMessageCode() {
@@ -150,13 +292,11 @@ public class Lattice {
         MessageCode.init();
     }
 
+    /**
+     * @return the shared readonly config of the business.
+     */
     public BusinessConfig getBusinessConfigByBizCode(String bizCode) {
-        BusinessConfig config = BusinessConfigCache.getInstance().getBusinessConfigByBizCode(bizCode);
-        if (null == config) {
-            return null;
-        }
-        return new ReadonlyBusinessConfig(config.getBizCode(), config.getPriority(),
-                config.getProducts(), config.getExtensions());
+        return BusinessConfigCache.getInstance().getBusinessConfigByBizCode(bizCode);
     }
 
 
@@ -178,8 +318,7 @@ public class Lattice {
     }
 
     private void injectIndirectDependencyExtensions(){
-        BusinessConfigCache.getInstance().getBusinessConfigs().forEach(p -> autoBuildUseCaseExtPriorityConfig(p, buildUseCaseExtPriorityConfigMap()));
-        BusinessConfigCache.getInstance().getBusinessConfigs().sort(Comparator.comparingInt(BusinessConfig::getPriority));
+        BusinessConfigCache.getInstance().updateBusinessConfigs(p -> autoBuildUseCaseExtPriorityConfig(p, buildUseCaseExtPriorityConfigMap()));
     }
 
     private void autoBuildUseCaseExtPriorityConfig(BusinessConfig businessConfig, Map<String, ExtPriorityConfig> priorityMap) {
@@ -224,10 +363,7 @@ public class Lattice {
             throw new LatticeRuntimeException(message);
         }
 
-        BusinessConfigCache.getInstance().getBusinessConfigs().stream()
-                .filter(p -> StringUtils.equals(config.getBizCode(), p.getBizCode()))
-                .findFirst().ifPresent(BusinessConfigCache.getInstance().getBusinessConfigs()::remove);
-        BusinessConfigCache.getInstance().getBusinessConfigs().add(config);
+        BusinessConfigCache.getInstance().addBusinessConfig(config);
     }
 
     private Message checkBusinessConfig(BusinessConfig config) {
@@ -242,9 +378,7 @@ public class Lattice {
                 .map(this::buildProductConfig)
                 .collect(Collectors.toList());
 
-        BusinessConfig businessConfig = BusinessConfigCache.getInstance().getBusinessConfigs().stream()
-                .filter(p -> StringUtils.equals(p.getBizCode(), businessSpec.getCode()))
-                .findFirst().orElse(null);
+        BusinessConfig businessConfig = BusinessConfigCache.getInstance().getBusinessConfigByBizCode(businessSpec.getCode());
         if (null != businessConfig) {
             return businessConfig;
         }
@@ -260,7 +394,8 @@ public class Lattice {
                 .extension(priorityConfigs)
                 .build();
         businessConfig.setAutoBuild(true);
-        BusinessConfigCache.getInstance().getBusinessConfigs().add(businessConfig);
+        BusinessConfigCache.getInstance().addBusinessConfig(businessConfig);
+        businessConfig = BusinessConfigCache.getInstance().getBusinessConfigByBizCode(businessSpec.getCode());
 
 //        BusinessConfigCache.getInstance().getBusinessConfigs().forEach(p -> autoBuildUseCaseExtPriorityConfig(p, buildUseCaseExtPriorityConfigMap()));
 //        BusinessConfigCache.getInstance().getBusinessConfigs().sort(Comparator.comparingInt(BusinessConfig::getPriority));
@@ -354,33 +489,20 @@ public class Lattice {
     }
 
     public BusinessSpec getRegisteredBusinessByCode(String code) {
-        return TemplateRegister.getInstance().getBusinesses().stream()
-                .filter(p -> StringUtils.equals(code, p.getCode()))
-                .findFirst().orElse(null);
+        return TemplateRegister.getInstance().getSnapshot().getBusinessByCode(code);
     }
 
     @SuppressWarnings("rawtypes")
     public TemplateSpec getTemplateSpec(String code, TemplateType type) {
-        if (type == TemplateType.BUSINESS) {
-            return getRegisteredBusinessByCode(code);
-        } else if (type == TemplateType.PRODUCT) {
-            return getRegisteredProductByCode(code);
-        } else if (type == TemplateType.USE_CASE) {
-            return getRegisteredUseCaseByCode(code);
-        }
-        return null;
+        return TemplateRegister.getInstance().getSnapshot().getTemplateSpec(code, type);
     }
 
     public ProductSpec getRegisteredProductByCode(String code) {
-        return TemplateRegister.getInstance().getProducts().stream()
-                .filter(p -> StringUtils.equals(code, p.getCode()))
-                .findFirst().orElse(null);
+        return TemplateRegister.getInstance().getSnapshot().getProductByCode(code);
     }
 
     public UseCaseSpec getRegisteredUseCaseByCode(String code) {
-        return TemplateRegister.getInstance().getUseCases().stream()
-                .filter(p -> StringUtils.equals(code, p.getCode()))
-                .findFirst().orElse(null);
+        return TemplateRegister.getInstance().getSnapshot().getUseCaseByCode(code);
     }
 
     public static List<String> getServiceProviderValues(String spiClassName, ClassLoader originLoader) {
@@ -447,34 +569,12 @@ public class Lattice {
     }
 
     @SuppressWarnings("rawtypes")
-    private void registerRealizations() {
-        Set<Class> classSet = getServiceProviderClasses(IBusinessExt.class.getName());
-        TemplateRegister.getInstance().registerRealizations(classSet);
-    }
-
-    @SuppressWarnings("rawtypes")
-    private void registerAbilities() {
-        Set<Class> abilityClasses = getServiceProviderClasses(IAbility.class.getName());
+    private void registerAbilities(Set<Class> abilityClasses) {
         registeredAbilities.addAll(AbilityRegister.getInstance()
                 .register(new AbilityBuildRequest(null, mergeAbilityInstancePackage(abilityClasses))));
-    }
-
-    @SuppressWarnings("rawtypes")
-    private void registerBusinesses() {
-        Set<Class> classSet = getServiceProviderClasses(IBusiness.class.getName());
-        TemplateRegister.getInstance().registerBusinesses(classSet);
-    }
-
-    @SuppressWarnings("rawtypes")
-    private void registerProducts() {
-        Set<Class> classSet = getServiceProviderClasses(IProduct.class.getName());
-        TemplateRegister.getInstance().registerProducts(classSet);
-    }
-
-    @SuppressWarnings("rawtypes")
-    private void registerUseCases() {
-        Set<Class> classSet = getServiceProviderClasses(IUseCase.class.getName());
-        TemplateRegister.getInstance().registerUseCases(classSet);
+        Map<String, AbilitySpec> index = new HashMap<>(registeredAbilities.size() * 2);
+        registeredAbilities.forEach(p -> index.putIfAbsent(p.getCode(), p));
+        abilitySpecIndex = Collections.unmodifiableMap(index);
     }
 
     @SuppressWarnings("rawtypes")
@@ -489,9 +589,9 @@ public class Lattice {
     }
 
     public RealizationSpec getRealizationSpecByCode(String code) {
-        return TemplateRegister.getInstance().getRealizations()
-                .stream().filter(p -> BizCodeUtils.isCodesMatched(p.getCode(), code))
-                .findFirst().orElse(null);
+        List<RealizationSpec> specs = TemplateRegister.getInstance().getSnapshot()
+                .getRealizationsMatchingCode(code);
+        return specs.isEmpty() ? null : specs.get(0);
     }
 
     public List<RealizationSpec> getAllRealizations() {
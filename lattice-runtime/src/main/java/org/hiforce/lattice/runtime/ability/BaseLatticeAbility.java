@@ -1,11 +1,9 @@
 package org.hiforce.lattice.runtime.ability;
 
-import com.google.common.collect.Lists;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.annotation.model.AbilityAnnotation;
-import org.hiforce.lattice.annotation.model.ExtensionAnnotation;
 import org.hiforce.lattice.exception.LatticeRuntimeException;
 import org.hiforce.lattice.message.Message;
 import org.hiforce.lattice.model.ability.IAbility;
@@ -18,19 +16,22 @@ import org.hiforce.lattice.model.register.ExtensionSpec;
 import org.hiforce.lattice.runtime.Lattice;
 import org.hiforce.lattice.runtime.ability.delegate.BaseLatticeAbilityDelegate;
 import org.hiforce.lattice.runtime.ability.execute.ExecuteResult;
+import org.hiforce.lattice.runtime.ability.execute.ExtensionInvokeRecorder;
 import org.hiforce.lattice.runtime.ability.execute.RunnerCollection;
 import org.hiforce.lattice.runtime.ability.execute.filter.ExtensionFilter;
 import org.hiforce.lattice.runtime.cache.LatticeRuntimeCache;
 import org.hiforce.lattice.utils.JacksonUtils;
 import org.hiforce.lattice.utils.LatticeAnnotationUtils;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.cglib.proxy.Enhancer;
-import org.springframework.cglib.proxy.MethodInterceptor;
 
 import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.hiforce.lattice.runtime.ability.execute.filter.ExtensionFilter.DEFAULT_FILTER;
 
@@ -112,16 +113,7 @@ public abstract class BaseLatticeAbility<BusinessExt extends IBusinessExt>
         if (!Lattice.getInstance().isInitialized()) {
             throw new LatticeRuntimeException("LATTICE-CORE-RT-0023");
         }
-        ExecuteResult<R> result = reduceExecuteWithDetailResult(callback, reducer, filter);
-        if (null == result || null == result.getResult()) {
-            return null;
-        }
-        log.debug("[Lattice] invoke result: {}", JacksonUtils.serializeWithoutException(result));
-        if (!result.isSuccess()) {
-            handleReduceExecuteFailed(result);
-            return null;
-        }
-        return result.getResult();
+        return toReduceResult(reduceExecuteWithDetailResult(callback, reducer, filter));
     }
 
     @SuppressWarnings("all")
@@ -140,81 +132,152 @@ public abstract class BaseLatticeAbility<BusinessExt extends IBusinessExt>
             if (StringUtils.isEmpty(extCode)) {
                 throw new LatticeRuntimeException("LATTICE-CORE-RT-0007");
             }
-
-            if (null == getContext().getBizObject()) {
-                return ExecuteResult.failed(bizObject.getBizCode(), extCode, Message.code("LATTICE-CORE-RT-0018"));
-            }
-            if (getContext().getBizObject().getBizContext().getBizId() == null) {
-                return ExecuteResult.failed(bizObject.getBizCode(), extCode, Message.code("LATTICE-CORE-RT-0019"));
-            }
-
-            if (!supportChecking()) {
-                return ExecuteResult.success(getContext().getBizCode(), extCode, reducer.reduceName(),
-                        Message.code("LATTICE-CORE-RT-0020", this.getClass().getName(),
-                                Optional.ofNullable(getContext().getBizObject())
-                                        .map(p -> p.getBizContext())
-                                        .map(p -> p.getBizInfo()).orElse(getContext().getBizObject().getBizId().toString()), extCode));
-            }
-
-            // 通过扩展点编码从扩展点缓存中获取扩展点，进行一些校验动作
             ExtensionSpec extensionSpec = getRuntimeCache().getExtensionCache().getExtensionSpecByCode(extCode);
-            if (null == extensionSpec && !Lattice.getInstance().isSimpleMode()) {
-                throw new LatticeRuntimeException("LATTICE-CORE-RT-0016", extCode);
-            }
-            if (null != extensionSpec && !reducer.reducerType().equals(extensionSpec.getReduceType())) {
-                log.warn(Message.code("LATTICE-CORE-RT-0017", extCode, reducer.reducerType(),
-                        extensionSpec.getReduceType()).getText());
-            }
-
-            String bizCode = getContext().getBizObject().getBizCode();
-            if (StringUtils.isEmpty(bizCode)) {
-                throw new LatticeRuntimeException("LATTICE-CORE-RT-0008");
+            ExecuteResult<R> checkResult = checkBeforeExecute(extCode, extensionSpec, reducer);
+            if (null != checkResult) {
+                return checkResult;
             }
 
-            List<T> results = new ArrayList<>(16);
+            List<T> results = new ArrayList<>(4);
             // 通过当前能力实例的一个包装对象，
             RunnerCollection<R> runnerCollection = delegate.loadExtensionRunners(extCode, filter);
+            // 仅在需要时构建每个执行器的明细结果
+            boolean recordDetail = filter.isRecordDetailResults() || log.isDebugEnabled();
+            boolean parallel = filter.isParallel() || (null != extensionSpec && extensionSpec.isParallel());
             // 执行
             return runnerCollection.distinct()
-                    .reduceExecute(extCode, reducer, (ExtensionCallback<IBusinessExt, T>) callback, results);
+                    .reduceExecute(extCode, reducer, (ExtensionCallback<IBusinessExt, T>) callback, results, recordDetail, parallel);
         } finally {
             this.context = null; //destroy the context.
         }
     }
 
+    public <T, R> CompletableFuture<R> reduceExecuteAsync(ExtensionCallback<BusinessExt, T> callback,
+                                                          @Nonnull Reducer<T, R> reducer) {
+        return reduceExecuteAsync(callback, reducer, DEFAULT_FILTER);
+    }
+
+    /**
+     * Execute the extension without blocking on the runners. The runners are resolved on the
+     * calling thread, and executed one by one in priority order, the remote runners are invoked
+     * asynchronously. The ability instance should not be reused before the future completed.
+     *
+     * @return the future of the reduced result, completed with null when the execution failed.
+     */
+    @SuppressWarnings("all")
+    public <T, R> CompletableFuture<R> reduceExecuteAsync(ExtensionCallback<BusinessExt, T> callback,
+                                                          @Nonnull Reducer<T, R> reducer, ExtensionFilter filter) {
+        if (!Lattice.getInstance().isInitialized()) {
+            throw new LatticeRuntimeException("LATTICE-CORE-RT-0023");
+        }
+
+        CompletableFuture<ExecuteResult<R>> future;
+        try {
+            initAbiliinittyInvokeContext(callback);//init the ability context.
+            String extCode = getContext().getExtCode();
+            if (StringUtils.isEmpty(extCode)) {
+                throw new LatticeRuntimeException("LATTICE-CORE-RT-0007");
+            }
+            ExtensionSpec extensionSpec = getRuntimeCache().getExtensionCache().getExtensionSpecByCode(extCode);
+            ExecuteResult<R> checkResult = checkBeforeExecute(extCode, extensionSpec, reducer);
+            if (null != checkResult) {
+                future = CompletableFuture.completedFuture(checkResult);
+            } else {
+                RunnerCollection<R> runnerCollection = delegate.loadExtensionRunners(extCode, filter);
+                boolean recordDetail = filter.isRecordDetailResults() || log.isDebugEnabled();
+                future = runnerCollection.distinct().reduceExecuteAsync(extCode, reducer,
+                        (ExtensionCallback<IBusinessExt, T>) callback, recordDetail);
+            }
+        } catch (RuntimeException ex) {
+            this.context = null;
+            throw ex;
+        }
+        // 远程执行器读取能力上下文中的调用参数，待执行完成后再销毁上下文
+        return future.handle((result, ex) -> {
+            this.context = null; //destroy the context.
+            if (null != ex) {
+                throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+            }
+            return toReduceResult(result);
+        });
+    }
+
+    private <R> R toReduceResult(ExecuteResult<R> result) {
+        if (null == result || null == result.getResult()) {
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("[Lattice] invoke result: {}", JacksonUtils.serializeWithoutException(result));
+        }
+        if (!result.isSuccess()) {
+            handleReduceExecuteFailed(result);
+            return null;
+        }
+        return result.getResult();
+    }
+
+    @SuppressWarnings("all")
+    private <T, R> ExecuteResult<R> checkBeforeExecute(String extCode, ExtensionSpec extensionSpec,
+                                                       Reducer<T, R> reducer) {
+        if (null == getContext().getBizObject()) {
+            return ExecuteResult.failed(bizObject.getBizCode(), extCode, Message.code("LATTICE-CORE-RT-0018"));
+        }
+        if (getContext().getBizObject().getBizContext().getBizId() == null) {
+            return ExecuteResult.failed(bizObject.getBizCode(), extCode, Message.code("LATTICE-CORE-RT-0019"));
+        }
+
+        if (!supportChecking()) {
+            return ExecuteResult.success(getContext().getBizCode(), extCode, reducer.reduceName(),
+                    Message.code("LATTICE-CORE-RT-0020", this.getClass().getName(),
+                            Optional.ofNullable(getContext().getBizObject())
+                                    .map(p -> p.getBizContext())
+                                    .map(p -> p.getBizInfo()).orElseGet(() -> getContext().getBizObject().getBizId().toString()), extCode));
+        }
+
+        // 通过扩展点编码从扩展点缓存中获取扩展点，进行一些校验动作
+        if (null == extensionSpec && !Lattice.getInstance().isSimpleMode()) {
+            throw new LatticeRuntimeException("LATTICE-CORE-RT-0016", extCode);
+        }
+        if (null != extensionSpec && !reducer.reducerType().equals(extensionSpec.getReduceType())) {
+            log.warn(Message.code("LATTICE-CORE-RT-0017", extCode, reducer.reducerType(),
+                    extensionSpec.getReduceType()).getText());
+        }
+
+        String bizCode = getContext().getBizObject().getBizCode();
+        if (StringUtils.isEmpty(bizCode)) {
+            throw new LatticeRuntimeException("LATTICE-CORE-RT-0008");
+        }
+        return null;
+    }
+
     @SuppressWarnings("all")
     private <T> void initAbiliinittyInvokeContext(ExtensionCallback<BusinessExt, T> callback) {
         // 获取默认扩展点实现
         BusinessExt businessExt = this.getDefaultRealization();
-        List<Object> extParams = Lists.newArrayList();
-        // 创建一个代理对象。
-        // 目的是通过一次方法调用，往Ability执行上下文中放入一些参数
-        Enhancer enhancer = new Enhancer();
-        enhancer.setSuperclass(businessExt.getClass());
-        enhancer.setCallback((MethodInterceptor) (o, method, params, methodProxy) -> {
-            // 往上下文中设置参数
-            this.getContext().setExtMethod(method);
-            if (null != params) {
-                for (Object p : params) {
-                    extParams.add(p);
-                }
+        // 通过缓存的代理对象执行一次回调，记录扩展点方法及参数，往Ability执行上下文中放入一些参数
+        ExtensionInvokeRecorder.Invocation invocation =
+                ExtensionInvokeRecorder.getInstance().record(businessExt.getClass(), callback);
+        try {
+            if (!invocation.isRecorded()) {
+                return;
             }
-            this.getContext().setInvokeParams(extParams);
-            // 获取扩展点注解
-            ExtensionAnnotation annotation =
-                    LatticeAnnotationUtils.getExtensionAnnotation(method);
-            if (null == annotation) {
+            Method method = invocation.getMethod();
+            this.getContext().setExtMethod(method);
+            this.getContext().setInvokeParams(null == invocation.getParams() ?
+                    new ArrayList<>(0) : Arrays.asList(invocation.getParams()));
+            if (null == invocation.getExtCode()) {
                 log.warn("[Lattice] invoke context, failed to get annotation, method={}", method.getName());
             } else {
-                this.getContext().setExtCode(annotation.getCode());
-                this.getContext().setExtName(annotation.getName());
+                this.getContext().setExtCode(invocation.getExtCode());
+                this.getContext().setExtName(invocation.getExtName());
             }
-            log.debug("[Lattice] invoke context, method={}, annotation=[code={}, name={}], params={}", method.getName(),
-                    getContext().getExtCode(), getContext().getExtName(), JacksonUtils.serializeWithoutException(extParams));
-            return null;
-        });
-        businessExt = (BusinessExt) enhancer.create();
-        // 扩展点回调方法执行，传入代理对象，初始化上下文参数
-        callback.apply(businessExt);
+            if (log.isDebugEnabled()) {
+                log.debug("[Lattice] invoke context, method={}, annotation=[code={}, name={}], params={}", method.getName(),
+                        getContext().getExtCode(), getContext().getExtName(),
+                        JacksonUtils.serializeWithoutException(getContext().getInvokeParams()));
+            }
+        } finally {
+            invocation.reset();
+        }
     }
 }
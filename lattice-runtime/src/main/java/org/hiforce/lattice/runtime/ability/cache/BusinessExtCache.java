@@ -1,19 +1,20 @@
 package org.hiforce.lattice.runtime.ability.cache;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Table;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.annotation.model.ScanSkipAnnotation;
 import org.hiforce.lattice.model.ability.IBusinessExt;
 import org.hiforce.lattice.model.ability.cache.IBusinessExtCache;
+import org.hiforce.lattice.runtime.cache.BoundedCache;
 import org.hiforce.lattice.runtime.cache.LatticeCache;
+import org.hiforce.lattice.runtime.cache.LatticeCacheStats;
 import org.hiforce.lattice.utils.BusinessExtUtils;
 import org.hiforce.lattice.runtime.utils.LatticeBeanUtils;
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -31,7 +32,7 @@ public class BusinessExtCache implements IBusinessExtCache, LatticeCache {
 
     private static final Object lock = new Object();
 
-    private static final Table<Class<?>, ExtKey, IBusinessExt> BIZ_EXT_TABLE = HashBasedTable.create();
+    private static final BoundedCache<ExtKey, IBusinessExt> BIZ_EXT_TABLE = BoundedCache.of("bizExt", 10000);
 
     private BusinessExtCache() {
 
@@ -58,27 +59,23 @@ public class BusinessExtCache implements IBusinessExtCache, LatticeCache {
         BIZ_EXT_TABLE.clear();
     }
 
+    @Override
+    public List<LatticeCacheStats> getStats() {
+        return Collections.singletonList(BIZ_EXT_TABLE.getStats());
+    }
+
 
-    @SuppressWarnings("SynchronizationOnGetClass")
     public IBusinessExt getCachedBusinessExt(IBusinessExt businessExt, String extCode, String scenario) {
         scenario = StringUtils.isEmpty(scenario) ? "None#" : scenario;
-        ExtKey extKey = new ExtKey(scenario, extCode);
-        IBusinessExt found = BIZ_EXT_TABLE.get(businessExt.getClass(), extKey);
-        if (null != found) {
-            return found;
-        }
-        synchronized (businessExt.getClass()) {
-            IBusinessExt point = BIZ_EXT_TABLE.get(businessExt.getClass(), extKey);
-            if (point != null) {
-                return point;
-            }
-            point = findSubBusinessExtViaExtCode(businessExt, extCode);
+        ExtKey extKey = new ExtKey(businessExt.getClass(), scenario, extCode);
+        // 仅阻塞同一个key的并发首次加载
+        return BIZ_EXT_TABLE.get(extKey, k -> {
+            IBusinessExt point = findSubBusinessExtViaExtCode(businessExt, extCode);
             if (point != null) {
                 LatticeBeanUtils.autowireBean(point);
-                BIZ_EXT_TABLE.put(businessExt.getClass(), extKey, point);
             }
             return point;
-        }
+        });
     }
 
     @Override
@@ -146,10 +143,12 @@ public class BusinessExtCache implements IBusinessExtCache, LatticeCache {
     }
 
     static class ExtKey {
+        private final Class<?> extClass;
         private final String scenario;
         private final String extCode;
 
-        public ExtKey(String scenario, String extCode) {
+        public ExtKey(Class<?> extClass, String scenario, String extCode) {
+            this.extClass = extClass;
             this.scenario = scenario;
             this.extCode = extCode;
         }
@@ -163,6 +162,9 @@ public class BusinessExtCache implements IBusinessExtCache, LatticeCache {
                 return false;
             }
             ExtKey key = (ExtKey) o;
+            if (extClass != key.extClass) {
+                return false;
+            }
 
             if (StringUtils.isNotEmpty(scenario) ?
                     !StringUtils.equals(scenario, key.scenario) : StringUtils.isNotEmpty(key.scenario)) {
@@ -173,7 +175,8 @@ public class BusinessExtCache implements IBusinessExtCache, LatticeCache {
 
         @Override
         public int hashCode() {
-            int result = scenario != null ? scenario.hashCode() : 0;
+            int result = extClass.hashCode();
+            result = 31 * result + (scenario != null ? scenario.hashCode() : 0);
             result = 31 * result + (extCode != null ? extCode.hashCode() : 0);
             return result;
         }
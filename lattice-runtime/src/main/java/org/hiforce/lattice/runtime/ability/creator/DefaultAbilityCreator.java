@@ -7,10 +7,8 @@ import org.hiforce.lattice.model.register.AbilityInstSpec;
 import org.hiforce.lattice.model.register.AbilitySpec;
 import org.hiforce.lattice.runtime.Lattice;
 import org.hiforce.lattice.runtime.ability.cache.AbilityInstCache;
-import org.hiforce.lattice.runtime.ability.cache.AbilityInstCacheKey;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static org.hiforce.lattice.runtime.utils.LatticeBeanUtils.getAndCreateSpringBeanViaClass;
 
@@ -25,30 +23,25 @@ public class DefaultAbilityCreator<Ability extends IAbility> {
     private String abilityCode;
     private IBizObject target;
 
-    private final Map<AbilityInstCacheKey, List<Ability>> abilitySelectorCache
-            = new ConcurrentHashMap<>(1024);
-
     public DefaultAbilityCreator(String abilityCode, IBizObject target) {
         this.target = target;
         this.abilityCode = abilityCode;
     }
 
     public List<Ability> getAllAbilityInstancesWithCache() {
-        AbilityInstCacheKey selectorCacheKey = new AbilityInstCacheKey(target.getBizCode(), abilityCode);
-        List<Ability> abilityList = abilitySelectorCache
-                .computeIfAbsent(selectorCacheKey, (key) -> {
-                    LinkedHashSet<Ability> abilities = new LinkedHashSet<>();
-                    List<Class<IAbility>> list = availableAbilities();
-                    for (Class<IAbility> instanceClass : list) {
-                        Ability ability = getAndCreateSpringBeanViaClass(instanceClass, target);
-                        if (ability != null) {
-                            abilities.add(ability);
-                        }
-                    }
-                    return new ArrayList<>(abilities);
-                });
-
-        return abilityList;
+        // 能力实例与bizObject绑定，每次调用创建，实例化策略按类缓存在LatticeBeanUtils中
+        List<Class<IAbility>> list = availableAbilities();
+        if (list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Ability> abilities = new ArrayList<>(list.size());
+        for (Class<IAbility> instanceClass : list) {
+            Ability ability = getAndCreateSpringBeanViaClass(instanceClass, target);
+            if (ability != null && !abilities.contains(ability)) {
+                abilities.add(ability);
+            }
+        }
+        return abilities;
     }
 
     private List<Class<IAbility>> availableAbilities() {
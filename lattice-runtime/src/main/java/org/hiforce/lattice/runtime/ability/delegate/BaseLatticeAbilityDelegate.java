@@ -1,6 +1,8 @@
 package org.hiforce.lattice.runtime.ability.delegate;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.annotation.model.ProtocolType;
@@ -8,6 +10,7 @@ import org.hiforce.lattice.cache.ITemplateCache;
 import org.hiforce.lattice.cache.invoke.InvokeCache;
 import org.hiforce.lattice.exception.LatticeRuntimeException;
 import org.hiforce.lattice.extension.ExtensionRunner;
+import org.hiforce.lattice.extension.ExtensionRunnerType;
 import org.hiforce.lattice.extension.RemoteExtensionRunnerBuilder;
 import org.hiforce.lattice.extension.RunnerItemEntry;
 import org.hiforce.lattice.message.Message;
@@ -17,7 +20,6 @@ import org.hiforce.lattice.model.business.ITemplate;
 import org.hiforce.lattice.model.business.TemplateType;
 import org.hiforce.lattice.model.config.BusinessConfig;
 import org.hiforce.lattice.model.config.ExtPriority;
-import org.hiforce.lattice.model.config.ExtPriorityConfig;
 import org.hiforce.lattice.model.context.BizSessionContext;
 import org.hiforce.lattice.model.register.BusinessSpec;
 import org.hiforce.lattice.model.register.ExtensionSpec;
@@ -25,16 +27,20 @@ import org.hiforce.lattice.model.register.RealizationSpec;
 import org.hiforce.lattice.model.register.TemplateSpec;
 import org.hiforce.lattice.runtime.Lattice;
 import org.hiforce.lattice.runtime.ability.BaseLatticeAbility;
+import org.hiforce.lattice.runtime.ability.execute.ExtensionExecutePlan;
 import org.hiforce.lattice.runtime.ability.execute.RunnerCollection;
 import org.hiforce.lattice.runtime.ability.execute.filter.ExtensionFilter;
 import org.hiforce.lattice.runtime.ability.execute.filter.ProductFilter;
 import org.hiforce.lattice.runtime.ability.execute.runner.ExtensionJavaRunner;
+import org.hiforce.lattice.runtime.ability.register.RegisterSnapshot;
 import org.hiforce.lattice.runtime.ability.register.TemplateRegister;
 import org.hiforce.lattice.runtime.cache.LatticeRuntimeCache;
 import org.hiforce.lattice.runtime.cache.ability.AbilityCache;
+import org.hiforce.lattice.runtime.cache.ability.ExecutePlanCache;
 import org.hiforce.lattice.runtime.cache.exension.ExtensionInvokeCache;
 import org.hiforce.lattice.runtime.cache.exension.NotExistedRealization;
 import org.hiforce.lattice.runtime.cache.index.TemplateIndex;
+import org.hiforce.lattice.runtime.cache.key.ExecutePlanCacheKey;
 import org.hiforce.lattice.runtime.cache.key.ExtensionInvokeCacheKey;
 import org.hiforce.lattice.runtime.cache.key.ExtensionRunnerCacheKey;
 import org.hiforce.lattice.runtime.spi.IRunnerCollectionBuilder;
@@ -44,9 +50,10 @@ import org.hiforce.lattice.utils.BizCodeUtils;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.hiforce.lattice.runtime.ability.execute.RunnerCollection.ACCEPT_ALL;
@@ -82,16 +89,14 @@ public class BaseLatticeAbilityDelegate {
         if (!Lattice.getInstance().isSimpleMode()) {
             return businessConfig;
         }
-        BusinessSpec businessSpec = TemplateRegister.getInstance().getBusinesses().stream()
-                .filter(p -> StringUtils.equals(p.getCode(), bizCode))
-                .findFirst().orElse(null);
-        if (null == businessConfig) {
+        BusinessSpec businessSpec = TemplateRegister.getInstance().getSnapshot().getBusinessByCode(bizCode);
+        if (null == businessSpec) {
             businessSpec = new BusinessSpec();
             businessSpec.setCode(bizCode);
             businessSpec.setRemote(true);
             businessSpec.setName("Remote Business [" + bizCode + "]");
             TemplateIndex.getInstance().addTemplateIndex(businessSpec);
-            TemplateRegister.getInstance().getBusinesses().add(businessSpec);
+            TemplateRegister.getInstance().addBusiness(businessSpec);
         }
 
         Set<ExtensionSpec> remoteExtensionSet = Lattice.getInstance().getAllRegisteredAbilities().stream()
@@ -116,7 +121,42 @@ public class BaseLatticeAbilityDelegate {
         IBizObject bizObject = ability.getContext().getBizObject();
         boolean onlyProduct = !filter.isLoadBusinessExt();
 
-        List<RunnerItemEntry<R>> cachedRunners = null;
+        ExecutePlanCacheKey planKey = new ExecutePlanCacheKey(ability.getClass(), bizCode, extCode, scenario,
+                filter.isLoadBusinessExt(),
+                null == filter.getProductFilter() ? null : filter.getProductFilter().getAllowedCodes(),
+                ability.supportCustomization(), ability.hasDefaultExtension());
+        ExtensionExecutePlan<R> plan = ExecutePlanCache.getInstance().getExecutePlan(planKey);
+        if (null == plan) {
+            plan = compileExecutePlan(extCode, filter);
+            ExecutePlanCache.getInstance().doCacheExecutePlan(planKey, plan);
+        }
+        if (plan.isDefaultOnly()) {
+            return buildDefaultRunnerCollection(extCode, onlyProduct);
+        }
+
+        boolean loadBizExt = filter.isLoadBusinessExt();
+        boolean loadDefaultExtension = ability.hasDefaultExtension();
+
+        RunnerCollection<R> businessRunnerCollection = RunnerCollection.of(bizObject,
+                filterEffectiveRunners(plan), ACCEPT_ALL,
+                getPlanDefaultRunnerProducer(plan, bizCode, extCode, scenario), loadBizExt, loadDefaultExtension);
+
+        IRunnerCollectionBuilder runnerCollectionBuilder = LatticeRuntimeSpiFactory.getInstance().getRunnerCollectionBuilder();
+        if (!runnerCollectionBuilder.isSupport(ability, extCode)) {
+            return businessRunnerCollection.asDistinct();
+        }
+        return RunnerCollection.combine(runnerCollectionBuilder.buildCustomRunnerCollection(ability, extCode)
+                , businessRunnerCollection);
+    }
+
+    /**
+     * Compile the execution plan of the extension, with the static filters applied.
+     */
+    private <R> ExtensionExecutePlan<R> compileExecutePlan(String extCode, ExtensionFilter filter) {
+        RegisterSnapshot snapshot = TemplateRegister.getInstance().getSnapshot();
+        String bizCode = ability.getContext().getBizCode();
+        String scenario = ability.getContext().getScenario();
+
         LatticeRuntimeCache runtimeCache = Lattice.getInstance().getRuntimeCache();
         //
         ExtensionSpec extensionSpec = runtimeCache.getExtensionCache().getExtensionIndex().getKey1Only(extCode);
@@ -127,83 +167,81 @@ public class BaseLatticeAbilityDelegate {
         BusinessConfig businessConfig = loadBusinessConfig(bizCode, extensionSpec);
         if (null == businessConfig) {
             if (Lattice.getInstance().isSimpleMode()) {
-                return buildDefaultRunnerCollection(extCode, onlyProduct);
+                return ExtensionExecutePlan.defaultOnly(snapshot);
             }
             throw new LatticeRuntimeException("LATTICE-CORE-RT-0012", bizCode);
         }
 
         // 从缓存中获取扩展点的执行器。可能会返回多个
-        cachedRunners = getCachedExtensionRunners(extensionSpec, businessConfig, filter);
+        List<RunnerItemEntry<R>> cachedRunners = getCachedExtensionRunners(extensionSpec, businessConfig, filter);
         if (cachedRunners == null) {
-            return buildDefaultRunnerCollection(extCode, onlyProduct);
+            return ExtensionExecutePlan.defaultOnly(snapshot);
         }
 
-        BaseLatticeAbilityDelegate.SessionRelatedFilter<R> sessionRelatedFilter
-                = filter == ExtensionFilter.DEFAULT_FILTER ?
-                new BaseLatticeAbilityDelegate.NoProductFilterSessionRelatedFilter<>(filter, bizObject, bizCode) :
-                new BaseLatticeAbilityDelegate.SessionRelatedFilter<>(filter, bizObject, bizCode);
-
-        boolean loadBizExt = filter.isLoadBusinessExt();
-        boolean loadDefaultExtension = ability.hasDefaultExtension();
-
-        RunnerCollection<R> businessRunnerCollection = RunnerCollection.of(bizObject,
-                filterEffectiveRunners(cachedRunners), sessionRelatedFilter,
-                getDefaultRunnerProducer(bizCode, extCode, scenario), loadBizExt, loadDefaultExtension);
-
-        return RunnerCollection.combine(buildCustomRunnerCollection(extCode, bizObject)
-                , businessRunnerCollection);
-    }
-
-    private <R> List<RunnerItemEntry<R>> filterEffectiveRunners(
-            List<RunnerItemEntry<R>> runners) {
-        List<RunnerItemEntry<R>> effectiveRunners = Lists.newArrayList();
-        for (RunnerItemEntry<R> runner : runners) {
-            if (runner.getTemplate().getType().isVertical()) {
-                effectiveRunners.add(runner);
+        ProductFilter productFilter = filter.getProductFilter();
+        List<RunnerItemEntry<R>> entries = Lists.newArrayList();
+        List<Boolean> sessionRelated = Lists.newArrayList();
+        Map<ExtensionRunnerType, Set<String>> distinctMap = Maps.newHashMap();
+        for (RunnerItemEntry<R> runner : cachedRunners) {
+            TemplateSpec template = runner.getTemplate();
+            if (null != productFilter && !productFilter.getAllowedCodes().contains(template.getCode())) {
+                continue;
+            }
+            boolean vertical = template.getType().isVertical();
+            if (template.getType() == TemplateType.BUSINESS
+                    && !BizCodeUtils.isCodesMatched(bizCode, template.getCode())) {
                 continue;
             }
+            if (template.getType().isHorizontal() && template.getType().needInstall()
+                    && !businessConfig.productInstalled(template.getCode())) {
+                continue;
+            }
+            if (!distinctMap.computeIfAbsent(runner.getRunnerType(), k -> Sets.newHashSet())
+                    .add(template.getCode())) {
+                continue;
+            }
+            entries.add(runner);
+            sessionRelated.add(!vertical);
+        }
+        return ExtensionExecutePlan.of(snapshot, entries, sessionRelated);
+    }
+
+    private <R> List<RunnerItemEntry<R>> filterEffectiveRunners(ExtensionExecutePlan<R> plan) {
+        if (plan.size() == 0) {
+            return Collections.emptyList();
+        }
+        List<TemplateSpec<? extends ITemplate>> effective = null;
+        if (plan.hasSessionRelated()) {
             BizSessionContext bizSessionContext =
                     InvokeCache.instance().get(BizSessionContext.class, BizSessionContext.class);
             if (!Lattice.getInstance().isSimpleMode() && null == bizSessionContext) {
                 throw new LatticeRuntimeException("LATTICE-CORE-RT-0024", ability.getContext().getExtCode());
             }
-            List<TemplateSpec<? extends ITemplate>> effective = (null == bizSessionContext) ? Lists.newArrayList()
-                    : bizSessionContext.getEffectiveTemplates()
-                    .get(ability.getBizObject().getBizContext().toString());
+            effective = null == bizSessionContext ? null :
+                    bizSessionContext.getEffectiveTemplates(ability.getBizObject());
+        }
 
-            if (effective.stream().noneMatch(p -> StringUtils.equals(p.getCode(), runner.getTemplate().getCode()))) {
+        List<RunnerItemEntry<R>> effectiveRunners = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            RunnerItemEntry<R> runner = plan.getEntry(i);
+            if (plan.isSessionRelated(i) && !isTemplateEffected(effective, runner.getTemplate())) {
                 continue;
             }
-            effectiveRunners.add(runner);
+            effectiveRunners.add(runner.bind(ability));
         }
         return effectiveRunners;
     }
 
-    private <R> RunnerCollection<R> buildCustomRunnerCollection(
-            String extensionCode, IBizObject bizInstance) {
-        IRunnerCollectionBuilder runnerCollectionBuilder = LatticeRuntimeSpiFactory.getInstance().getRunnerCollectionBuilder();
-        if (!runnerCollectionBuilder.isSupport(ability, extensionCode)) {
-            return RunnerCollection.of(bizInstance, Lists.newArrayList(), ACCEPT_ALL);
-        }
-        return runnerCollectionBuilder.buildCustomRunnerCollection(ability, extensionCode);
-    }
-
-    private static boolean isTemplateEffected(IBizObject bizObject, TemplateSpec template) {
-        if (template.getType() == TemplateType.BUSINESS) {
-            return BizCodeUtils.isCodesMatched(bizObject.getBizCode(), template.getCode());
-        }
-
-        BizSessionContext bizSessionContext =
-                InvokeCache.instance().get(BizSessionContext.class, BizSessionContext.class);
-        if (null == bizSessionContext) {
+    private static boolean isTemplateEffected(List<TemplateSpec<? extends ITemplate>> effective, TemplateSpec template) {
+        if (null == effective) {
             return false;
         }
-
-        List<TemplateSpec<? extends ITemplate>> effective = bizSessionContext.getEffectiveTemplates().get(bizObject.getBizContext().toString());
-        if (effective.stream().noneMatch(p -> StringUtils.equals(p.getCode(), template.getCode()))) {
-            return false;
+        for (TemplateSpec<? extends ITemplate> spec : effective) {
+            if (StringUtils.equals(spec.getCode(), template.getCode())) {
+                return true;
+            }
         }
-        return true;
+        return false;
     }
 
     private <R> List<RunnerItemEntry<R>> getCachedExtensionRunners(
@@ -214,61 +252,41 @@ public class BaseLatticeAbilityDelegate {
 
         boolean supportCustomization = ability.supportCustomization();
         boolean isHorizontal = !filter.isLoadBusinessExt();
-        LatticeRuntimeCache runtimeCache = Lattice.getInstance().getRuntimeCache();
         // cache
         ExtensionRunnerCacheKey key = new ExtensionRunnerCacheKey(
                 extension.getCode(), bizCode, scenario, supportCustomization, isHorizontal);
 
+        // 缓存的执行项与ability实例无关，且不可变，调用时再绑定ability
         Object result = AbilityCache.getInstance().getCachedExtensionRunner(ability.getClass(), key);
         if (result != null) {
-            if (result == NULL_OBJECT) {
-                return null;
-            } else {
-                List<RunnerItemEntry<R>> runnerItemEntryList = (List<RunnerItemEntry<R>>) result;
-                runnerItemEntryList.forEach(r -> {
-                    r.setAbility(ability);
-                    r.getRunner().setAbility(ability);
-                });
-            }
+            return result == NULL_OBJECT ? null : (List<RunnerItemEntry<R>>) result;
         }
 
-        ExtPriorityConfig priorityConfig = businessConfig.getExtensions().stream()
-                .filter(p -> StringUtils.equals(p.getExtCode(), extension.getCode()))
-                .findFirst().orElse(null);
-        if (null == priorityConfig) {
+        List<ExtPriority> priorities = businessConfig.getExtPriorityByCode(extension.getCode(), isHorizontal);
+        if (null == priorities) {
             AbilityCache.getInstance().doCacheExtensionRunner(ability.getClass(), key, NULL_OBJECT);
             return null;
         }
 
         List<RunnerItemEntry<R>> extensionRunners = new ArrayList<>();
-        for (ExtPriority config : businessConfig.getExtPriorityByCode(extension.getCode(), isHorizontal)) {
+        for (ExtPriority config : priorities) {
             if (null == config)
                 continue;
-            BizSessionContext bizSessionContext =
-                    InvokeCache.instance().get(BizSessionContext.class, BizSessionContext.class);
-            if (null == bizSessionContext) {
-                // 构建扩展点执行项
-                RunnerItemEntry<R> runnerItemEntry =
-                        buildExtensionRunnerItemEntry(extension, config, bizCode, scenario);
-                if (null != runnerItemEntry) {
-                    extensionRunners.add(runnerItemEntry);
-                }
-                continue;
-            }
-
             if (config.getType().isHorizontal() && config.getType().needInstall()) {
                 if (!businessConfig.productInstalled(config.getCode())) {
                     continue;
                 }
             }
+            // 构建扩展点执行项
             RunnerItemEntry<R> runnerItemEntry =
                     buildExtensionRunnerItemEntry(extension, config, bizCode, scenario);
             if (null != runnerItemEntry) {
                 extensionRunners.add(runnerItemEntry);
             }
         }
-        AbilityCache.getInstance().doCacheExtensionRunner(ability.getClass(), key, extensionRunners);
-        return extensionRunners;
+        List<RunnerItemEntry<R>> cachedRunners = Collections.unmodifiableList(extensionRunners);
+        AbilityCache.getInstance().doCacheExtensionRunner(ability.getClass(), key, cachedRunners);
+        return cachedRunners;
     }
 
     private <R> ExtensionRunner<R> buildRemoteExtensionRunner(
@@ -282,7 +300,7 @@ public class BaseLatticeAbilityDelegate {
         if (null == builderBean) {
             throw new LatticeRuntimeException("LATTICE-CORE-RT-0021", extension.getCode());
         }
-        return builderBean.build(ability, template, extension.getCode(), scenario);
+        return builderBean.build(bizCode, template, extension.getCode(), scenario);
     }
 
     private <R> ExtensionRunner<R> buildLocalExtensionRunner(
@@ -336,7 +354,7 @@ public class BaseLatticeAbilityDelegate {
         }
 
         if (runner != null) {
-            return new RunnerItemEntry<>(ability, template, runner);
+            return new RunnerItemEntry<>(null, template, runner);
         }
         return null;
     }
@@ -363,6 +381,28 @@ public class BaseLatticeAbilityDelegate {
     }
 
 
+    /**
+     * The business realization of a customizable ability is resolved once per plan, and bound
+     * to the ability of every invocation. The default realization of the ability itself is
+     * never shared with the other abilities.
+     */
+    @SuppressWarnings("all")
+    private <R> RunnerCollection.Producer<R> getPlanDefaultRunnerProducer(
+            ExtensionExecutePlan<R> plan, String bizCode, String extensionCode, String scenario) {
+        BusinessSpec template = plan.getSnapshot().getBusinessByCode(bizCode);
+        if (!ability.supportCustomization() || null == template) {
+            return getDefaultRunnerProducer(bizCode, extensionCode, scenario);
+        }
+        return () -> {
+            RunnerItemEntry<R> entry = plan.getDefaultEntry(() -> {
+                IBusinessExt extImpl = loadExtensionRealization(bizCode, scenario, template, extensionCode);
+                return null == extImpl ? null :
+                        new RunnerItemEntry<>(null, template, new ExtensionJavaRunner(extensionCode, extImpl));
+            });
+            return null == entry ? null : entry.bind(ability);
+        };
+    }
+
     @SuppressWarnings("all")
     private <R> RunnerCollection.Producer<R> getDefaultRunnerProducer(
             String bizCode,
@@ -393,21 +433,16 @@ public class BaseLatticeAbilityDelegate {
     }
 
     private BusinessSpec getBusinessSpec(String bizCode) {
-        return Lattice.getInstance().getAllRegisteredBusinesses().stream()
-                .filter(p -> StringUtils.equals(bizCode, p.getCode()))
-                .findFirst().orElse(null);
+        return TemplateRegister.getInstance().getSnapshot().getBusinessByCode(bizCode);
     }
 
     private TemplateSpec getHorizontalTemplateSpec(String code) {
-        TemplateSpec spec = Lattice.getInstance().getAllRegisteredProducts().stream()
-                .filter(p -> StringUtils.equals(code, p.getCode()))
-                .findFirst().orElse(null);
+        RegisterSnapshot snapshot = TemplateRegister.getInstance().getSnapshot();
+        TemplateSpec spec = snapshot.getProductByCode(code);
         if (null != spec) {
             return spec;
         }
-        return Lattice.getInstance().getAllRegisteredUseCases().stream()
-                .filter(p -> StringUtils.equals(code, p.getCode()))
-                .findFirst().orElse(null);
+        return snapshot.getUseCaseByCode(code);
     }
 
     private IBusinessExt loadExtensionRealization(
@@ -509,43 +544,4 @@ public class BaseLatticeAbilityDelegate {
         }
         return extFacade;
     }
-
-
-    private static class SessionRelatedFilter<R> implements Predicate<RunnerItemEntry<R>> {
-
-        private ProductFilter productFilter;
-        private ExtensionFilter extensionFilter;
-        protected IBizObject bizObject;
-        protected String bizCode;
-
-        public SessionRelatedFilter(ExtensionFilter extensionFilter, IBizObject bizObject, String bizCode) {
-            this.productFilter = extensionFilter.getProductFilter();
-            this.extensionFilter = extensionFilter;
-            this.bizObject = bizObject;
-            this.bizCode = bizCode;
-        }
-
-        @Override
-        public boolean test(RunnerItemEntry<R> entry) {
-            String templateCode = entry.getTemplate().getCode();
-            if (null != productFilter) {
-                if (!productFilter.getAllowedCodes().contains(templateCode)) {
-                    return false;
-                }
-            }
-            IBizObject bizInstance = this.bizObject;
-            return isTemplateEffected(bizInstance, entry.getTemplate());
-        }
-    }
-
-    private static class NoProductFilterSessionRelatedFilter<R> extends SessionRelatedFilter<R> {
-        public NoProductFilterSessionRelatedFilter(ExtensionFilter extensionRunnerFilter, IBizObject bizInstance, String bizCode) {
-            super(extensionRunnerFilter, bizInstance, bizCode);
-        }
-
-        @Override
-        public boolean test(RunnerItemEntry<R> entry) {
-            return isTemplateEffected(bizObject, entry.getTemplate());
-        }
-    }
 }
@@ -51,7 +51,7 @@ public class ExecuteResult<R> implements Serializable {
      * The detail multi-runner execution result of the extension point.
      */
     @Getter
-    private final List<RunnerExecutionStatus> detailResults = new ArrayList<>(10);
+    private final List<RunnerExecutionStatus> detailResults = new ArrayList<>(0);
 
     private static final ExtensionRunner.CollectionRunnerExecuteResult DUMMY = new ExtensionRunner.CollectionRunnerExecuteResult();
 
@@ -0,0 +1,114 @@
+package org.hiforce.lattice.runtime.ability.execute;
+
+import lombok.Getter;
+import org.hiforce.lattice.extension.RunnerItemEntry;
+import org.hiforce.lattice.runtime.ability.register.RegisterSnapshot;
+import org.hiforce.lattice.runtime.ability.register.TemplateRegister;
+
+import java.util.List;
+
+/**
+ * The compiled execution plan of an extension, for a given ability class, bizCode, extCode,
+ * scenario and filter flags. The static filters (product filter, business code matching,
+ * product installation, distinct) are already applied to the runner entries, only the
+ * session related effective-template check is left to the invocation.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@SuppressWarnings("all")
+public class ExtensionExecutePlan<R> {
+
+    private static final RunnerItemEntry[] EMPTY_ENTRIES = new RunnerItemEntry[0];
+
+    private static final boolean[] EMPTY_FLAGS = new boolean[0];
+
+    @Getter
+    private final RegisterSnapshot snapshot;
+
+    /**
+     * Whether no business config or runner found, and the default runner collection should be used.
+     */
+    @Getter
+    private final boolean defaultOnly;
+
+    private final RunnerItemEntry<R>[] entries;
+
+    private final boolean[] sessionRelated;
+
+    private final boolean hasSessionRelated;
+
+    /**
+     * The default entry of the plan, not bound to any ability.
+     */
+    private volatile RunnerItemEntry<R> defaultEntry;
+
+    private volatile boolean defaultProduced;
+
+    private ExtensionExecutePlan(RegisterSnapshot snapshot, boolean defaultOnly,
+                                 RunnerItemEntry<R>[] entries, boolean[] sessionRelated) {
+        this.snapshot = snapshot;
+        this.defaultOnly = defaultOnly;
+        this.entries = entries;
+        this.sessionRelated = sessionRelated;
+        boolean related = false;
+        for (boolean flag : sessionRelated) {
+            related |= flag;
+        }
+        this.hasSessionRelated = related;
+    }
+
+    public static <R> ExtensionExecutePlan<R> defaultOnly(RegisterSnapshot snapshot) {
+        return new ExtensionExecutePlan<>(snapshot, true, EMPTY_ENTRIES, EMPTY_FLAGS);
+    }
+
+    public static <R> ExtensionExecutePlan<R> of(RegisterSnapshot snapshot, List<RunnerItemEntry<R>> entries,
+                                                 List<Boolean> sessionRelated) {
+        boolean[] flags = new boolean[sessionRelated.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = sessionRelated.get(i);
+        }
+        return new ExtensionExecutePlan<>(snapshot, false,
+                entries.toArray(new RunnerItemEntry[0]), flags);
+    }
+
+    /**
+     * @return whether the registry has changed since the plan compiled.
+     */
+    public boolean isStale() {
+        return snapshot != TemplateRegister.getInstance().getSnapshot();
+    }
+
+    public boolean hasSessionRelated() {
+        return hasSessionRelated;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    public RunnerItemEntry<R> getEntry(int index) {
+        return entries[index];
+    }
+
+    public boolean isSessionRelated(int index) {
+        return sessionRelated[index];
+    }
+
+    /**
+     * @param producer produces the default entry, the entry must not be bound to any ability.
+     * @return the default entry of the plan, produced only once. The caller should bind it
+     * to the ability of the invocation.
+     */
+    public RunnerItemEntry<R> getDefaultEntry(RunnerCollection.Producer<R> producer) {
+        if (!defaultProduced) {
+            synchronized (this) {
+                if (!defaultProduced) {
+                    defaultEntry = producer.produce();
+                    defaultProduced = true;
+                }
+            }
+        }
+        return defaultEntry;
+    }
+}
@@ -0,0 +1,160 @@
+package org.hiforce.lattice.runtime.ability.execute;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hiforce.lattice.annotation.model.ExtensionAnnotation;
+import org.hiforce.lattice.model.ability.IBusinessExt;
+import org.hiforce.lattice.model.ability.execute.ExtensionCallback;
+import org.hiforce.lattice.model.register.ExtensionSpec;
+import org.hiforce.lattice.runtime.cache.LatticeCache;
+import org.hiforce.lattice.runtime.cache.exension.ExtensionCache;
+import org.hiforce.lattice.utils.LatticeAnnotationUtils;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.MethodInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which extension method an {@link ExtensionCallback} invokes, and with which arguments.
+ * The extension is resolved from the method table built during registration.
+ * <p>
+ * The recorder proxy is generated once per BusinessExt class and shared by all threads,
+ * the captured invocation is kept in a thread-confined slot.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@Slf4j
+public class ExtensionInvokeRecorder implements LatticeCache {
+
+    private static ExtensionInvokeRecorder instance;
+
+    private static final Object lock = new Object();
+
+    private static final Map<Class<?>, IBusinessExt> RECORDER_PROXY_CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<Method, ExtensionAnnotation> ANNOTATION_CACHE = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Invocation> INVOCATION_SLOT = ThreadLocal.withInitial(Invocation::new);
+
+    private static final MethodInterceptor RECORDING_INTERCEPTOR = (o, method, params, methodProxy) -> {
+        INVOCATION_SLOT.get().record(method, params);
+        return null;
+    };
+
+    public static ExtensionInvokeRecorder getInstance() {
+        if (null == instance) {
+            synchronized (lock) {
+                if (null == instance) {
+                    instance = new ExtensionInvokeRecorder();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Apply the callback on the cached recorder proxy of the BusinessExt class.
+     * The returned invocation belongs to the current thread, and must be
+     * {@link Invocation#reset()} after use.
+     *
+     * @param extClass the BusinessExt class to be proxied.
+     * @param callback the extension callback.
+     * @return the recorded invocation of current thread.
+     */
+    @SuppressWarnings("unchecked")
+    public <BusinessExt extends IBusinessExt, T> Invocation record(
+            Class<?> extClass, ExtensionCallback<BusinessExt, T> callback) {
+        Invocation invocation = INVOCATION_SLOT.get();
+        invocation.reset();
+        callback.apply((BusinessExt) getRecorderProxy(extClass));
+        return invocation;
+    }
+
+    private IBusinessExt getRecorderProxy(Class<?> extClass) {
+        IBusinessExt proxy = RECORDER_PROXY_CACHE.get(extClass);
+        if (null != proxy) {
+            return proxy;
+        }
+        return RECORDER_PROXY_CACHE.computeIfAbsent(extClass, clz -> {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(clz);
+            enhancer.setClassLoader(clz.getClassLoader());
+            enhancer.setCallback(RECORDING_INTERCEPTOR);
+            return (IBusinessExt) enhancer.create();
+        });
+    }
+
+    private static ExtensionAnnotation getExtensionAnnotation(Method method) {
+        ExtensionAnnotation annotation = ANNOTATION_CACHE.get(method);
+        if (null != annotation) {
+            return annotation;
+        }
+        annotation = LatticeAnnotationUtils.getExtensionAnnotation(method);
+        if (null != annotation) {
+            ANNOTATION_CACHE.put(method, annotation);
+        }
+        return annotation;
+    }
+
+    @Override
+    public void init() {
+
+    }
+
+    @Override
+    public void clear() {
+        RECORDER_PROXY_CACHE.clear();
+        ANNOTATION_CACHE.clear();
+    }
+
+    public static class Invocation {
+
+        @Getter
+        private Method method;
+
+        @Getter
+        private Object[] params;
+
+        @Getter
+        private ExtensionSpec extensionSpec;
+
+        @Getter
+        private ExtensionAnnotation annotation;
+
+        private void record(Method method, Object[] params) {
+            this.method = method;
+            this.params = params;
+            // 启动时已构建的扩展点方法表，未注册时才回退到注解解析
+            this.extensionSpec = ExtensionCache.getInstance().getExtensionSpecByMethod(method);
+            this.annotation = null == extensionSpec ? getExtensionAnnotation(method) : null;
+        }
+
+        public String getExtCode() {
+            if (null != extensionSpec) {
+                return extensionSpec.getCode();
+            }
+            return null == annotation ? null : annotation.getCode();
+        }
+
+        public String getExtName() {
+            if (null != extensionSpec) {
+                return extensionSpec.getName();
+            }
+            return null == annotation ? null : annotation.getName();
+        }
+
+        public boolean isRecorded() {
+            return null != method;
+        }
+
+        public void reset() {
+            this.method = null;
+            this.params = null;
+            this.extensionSpec = null;
+            this.annotation = null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.hiforce.lattice.runtime.ability.execute;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.hiforce.lattice.annotation.model.ReduceType;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans the extension runners out onto an executor, for the extensions run in parallel mode.
+ * <p>
+ * The default executor is a daemon thread pool, sized by the system property
+ * {@code lattice.parallel.threads} (available processors * 2 by default), with a bounded queue
+ * sized by {@code lattice.parallel.queue.size}. The runner is executed by the caller once the queue
+ * is full. The executor can be replaced via {@link #setExecutor(Executor)}. A parallel reduce started on a worker thread runs
+ * sequentially, so nested extensions can not exhaust the pool.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ExtensionParallelExecutor {
+
+    public static final String THREADS_PROPERTY = "lattice.parallel.threads";
+
+    public static final String QUEUE_SIZE_PROPERTY = "lattice.parallel.queue.size";
+
+    private static ExtensionParallelExecutor instance;
+
+    private static final Object lock = new Object();
+
+    private static final ThreadLocal<Boolean> IN_WORKER = new ThreadLocal<>();
+
+    private volatile Executor executor;
+
+    public static ExtensionParallelExecutor getInstance() {
+        if (null == instance) {
+            synchronized (lock) {
+                if (null == instance) {
+                    instance = new ExtensionParallelExecutor();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @return whether the runners of a reduce with the type can run in parallel.
+     */
+    public static boolean isParallelReduceType(ReduceType reduceType) {
+        return reduceType == ReduceType.ALL || reduceType == ReduceType.NONE;
+    }
+
+    /**
+     * @return whether the current thread is able to fan out, false when it's a worker itself.
+     */
+    public boolean isFanOutAllowed() {
+        return null == IN_WORKER.get();
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        if (null == executor) {
+            synchronized (lock) {
+                if (null == executor) {
+                    executor = buildDefaultExecutor();
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Submit the task to the executor, the task can be cancelled with interruption.
+     */
+    public <V> FutureTask<V> submit(Callable<V> task) {
+        FutureTask<V> future = new FutureTask<>(() -> {
+            IN_WORKER.set(Boolean.TRUE);
+            try {
+                return task.call();
+            } finally {
+                IN_WORKER.remove();
+            }
+        });
+        getExecutor().execute(future);
+        return future;
+    }
+
+    private static Executor buildDefaultExecutor() {
+        int threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors() * 2);
+        int queueSize = Integer.getInteger(QUEUE_SIZE_PROPERTY, threads * 64);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadFactoryBuilder()
+                .setNameFormat("lattice-parallel-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
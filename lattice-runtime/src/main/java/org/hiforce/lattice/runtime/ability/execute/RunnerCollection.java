@@ -1,18 +1,22 @@
 package org.hiforce.lattice.runtime.ability.execute;
 
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
+import org.hiforce.lattice.exception.LatticeRuntimeException;
 import org.hiforce.lattice.extension.ExtensionRunner;
-import org.hiforce.lattice.extension.ExtensionRunnerType;
 import org.hiforce.lattice.extension.RunnerItemEntry;
 import org.hiforce.lattice.model.ability.IBusinessExt;
 import org.hiforce.lattice.model.ability.execute.ExtensionCallback;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 import org.hiforce.lattice.model.business.IBizObject;
+import org.hiforce.lattice.model.context.ContextSnapshot;
 import org.hiforce.lattice.model.register.TemplateSpec;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.function.Predicate;
 
 /**
@@ -26,6 +30,10 @@ public class RunnerCollection<R> {
     public static final Predicate ACCEPT_ALL = o -> true;
     public static final Producer PRODUCE_NULL = () -> null;
 
+    private static final CompletableFuture<Boolean> NOT_BROKEN = CompletableFuture.completedFuture(false);
+
+    private static final CompletableFuture<Boolean> BROKEN = CompletableFuture.completedFuture(true);
+
     private IBizObject bizInstance;
 
     private List<RunnerItemEntry<R>> runnerList = Collections.emptyList();
@@ -40,6 +48,8 @@ public class RunnerCollection<R> {
 
     private boolean loadDefaultExtension;
 
+    private boolean distinct;
+
     private RunnerCollection() {
     }
 
@@ -153,7 +163,18 @@ public class RunnerCollection<R> {
         this.finalColl = result;
     }
 
+    /**
+     * Mark the runners of current collection already distinct, e.g. built from an execute plan.
+     */
+    public RunnerCollection<R> asDistinct() {
+        this.distinct = true;
+        return this;
+    }
+
     public RunnerCollection<R> distinct() {
+        if (this.distinct && null == this.parent) {
+            return this;
+        }
         List<InstantItem<R>> result = this.generateInstantItem();
         result = distinctRunners(result);
         this.updateResult(result);
@@ -161,53 +182,306 @@ public class RunnerCollection<R> {
     }
 
     private List<InstantItem<R>> distinctRunners(List<InstantItem<R>> runners) {
+        if (runners.size() <= 1) {
+            return runners;
+        }
         List<InstantItem<R>> output = new ArrayList<>(runners.size());
-        Map<ExtensionRunnerType, Set<String>> map = Maps.newHashMap();
-
         for (InstantItem<R> runner : runners) {
-            if (null == runner.runnerItemEntry.getTemplate()) {
-                output.add(runner);
-                continue;
-            }
-            Set<String> set = map.computeIfAbsent(runner.runnerItemEntry.getRunnerType(), k -> Sets.newHashSet());
-            boolean newAdd = set.add(runner.runnerItemEntry.getTemplate().getCode());
-            if (newAdd) {
+            TemplateSpec template = runner.runnerItemEntry.getTemplate();
+            if (null == template || !containsRunner(output, runner.runnerItemEntry)) {
                 output.add(runner);
             }
         }
         return output;
     }
 
+    private static boolean containsRunner(List<? extends InstantItem> output, RunnerItemEntry entry) {
+        for (InstantItem item : output) {
+            RunnerItemEntry existed = item.runnerItemEntry;
+            if (null != existed.getTemplate()
+                    && existed.getRunnerType() == entry.getRunnerType()
+                    && Objects.equals(existed.getTemplate().getCode(), entry.getTemplate().getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the collection is a single level with all runners accepted,
+     * so the runners can be executed without building the instant items.
+     */
+    private boolean isFlat() {
+        return null == this.parent && this.predicate == ACCEPT_ALL
+                && null == this.finalColl && null != this.runnerList;
+    }
+
+    private List<RunnerItemEntry<R>> flatRunners() {
+        if (!this.runnerList.isEmpty() || !this.loadBizExt) {
+            return this.runnerList;
+        }
+        RunnerItemEntry<R> defaultItem = this.defaultProducer.produce();
+        return null == defaultItem ? Collections.emptyList() : Collections.singletonList(defaultItem);
+    }
+
     public <T, R> ExecuteResult<R> reduceExecute(String extCode, Reducer<T, R> reducer, ExtensionCallback<IBusinessExt, T> callback, List<T> results) {
-        List<InstantItem<T>> list = this.generateInstantItem();
-        if (list.isEmpty()) {
-            return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(), reducer.reduce(results), null, null);
-        }
-
-        List<ExtensionRunner.CollectionRunnerExecuteResult> executeResults = new ArrayList<>(list.size() * 2);
-        for (InstantItem<T> item : list) {
-            ExtensionRunner.CollectionRunnerExecuteResult executeResult = new ExtensionRunner.CollectionRunnerExecuteResult();
-            List<T> itemResult = item.runAllMatched(callback, executeResult);
-            executeResult.setResults(itemResult);
-            executeResults.add(executeResult);
-            if (reducer.willBreak(itemResult)) {
-                return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
-                        reducer.reduce(itemResult), convertToTemplateList(list), executeResults);
-            } else {
-                if (itemResult.size() == 1) {
-                    results.add(itemResult.get(0));
+        return reduceExecute(extCode, reducer, callback, results, true);
+    }
+
+    public <T, R> ExecuteResult<R> reduceExecute(String extCode, Reducer<T, R> reducer,
+                                                 ExtensionCallback<IBusinessExt, T> callback,
+                                                 List<T> results, boolean recordDetail) {
+        return reduceExecute(extCode, reducer, callback, results, recordDetail, false);
+    }
+
+    /**
+     * Execute the runners and reduce the results.
+     *
+     * @param recordDetail whether build the detail results of each runner, skip it when
+     *                     only the reduced value is wanted.
+     * @param parallel     whether fan the runners out onto the parallel executor, only taken
+     *                     when the reduce type is ALL or NONE.
+     */
+    public <T, R> ExecuteResult<R> reduceExecute(String extCode, Reducer<T, R> reducer,
+                                                 ExtensionCallback<IBusinessExt, T> callback,
+                                                 List<T> results, boolean recordDetail, boolean parallel) {
+        List list = isFlat() ? flatRunners() : this.generateInstantItem();
+        int size = list.size();
+        // 归约状态保存在本次调用的累加器中，Reducer 实例可被共享
+        ReduceAccumulator<T, R> accumulator = reducer.newAccumulator();
+        // 流式累加器在执行器产出结果时即完成归约，无需再收集全部结果
+        StreamingAccumulator<T, R> streaming = accumulator instanceof StreamingAccumulator ?
+                (StreamingAccumulator<T, R>) accumulator : null;
+        if (size == 0) {
+            return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(), accumulator.reduce(results), null, null);
+        }
+        if (parallel && size > 1 && ExtensionParallelExecutor.isParallelReduceType(reducer.reducerType())
+                && ExtensionParallelExecutor.getInstance().isFanOutAllowed()) {
+            return parallelReduceExecute(extCode, reducer, accumulator, callback, results, recordDetail, list);
+        }
+
+        List<ExtensionRunner.CollectionRunnerExecuteResult> executeResults = recordDetail ? new ArrayList<>(size) : null;
+        ReduceScratch scratch = ReduceScratch.acquire();
+        try {
+            for (int i = 0; i < size; i++) {
+                Object item = list.get(i);
+                RunnerItemEntry<T> entry;
+                IBizObject bizObject;
+                if (item instanceof InstantItem) {
+                    entry = ((InstantItem) item).runnerItemEntry;
+                    bizObject = ((InstantItem) item).bizObject;
                 } else {
+                    entry = (RunnerItemEntry<T>) item;
+                    bizObject = this.bizInstance;
+                }
+
+                ExtensionRunner.CollectionRunnerExecuteResult executeResult = recordDetail ?
+                        new ExtensionRunner.CollectionRunnerExecuteResult() : scratch.resetExecuteResult();
+                ExtensionRunner<T> runner = entry.getRunner();
+                if (runner.isSingleResult()) {
+                    // 单结果执行器，避免为每个执行器构建结果列表
+                    T value = runFirstMatched(runner, bizObject, callback, executeResult);
+                    if (recordDetail) {
+                        executeResult.setResults(Collections.singletonList(value));
+                        executeResults.add(executeResult);
+                    }
+                    boolean willBreak = null != streaming ?
+                            streaming.offer(value) : accumulator.willBreak(scratch.single(value));
+                    if (willBreak) {
+                        return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
+                                accumulator.reduce(results),
+                                recordDetail ? convertToTemplateList(list) : null, executeResults);
+                    }
+                    if (null == streaming) {
+                        results.add(value);
+                    }
+                    continue;
+                }
+
+                List<T> itemResult = runAllMatched(runner, bizObject, callback, executeResult);
+                if (recordDetail) {
+                    executeResult.setResults(itemResult);
+                    executeResults.add(executeResult);
+                }
+                if (accumulator.willBreak(itemResult)) {
+                    return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
+                            accumulator.reduce(results), recordDetail ? convertToTemplateList(list) : null, executeResults);
+                } else if (null == streaming) {
+                    if (itemResult.size() == 1) {
+                        results.add(itemResult.get(0));
+                    } else {
+                        results.addAll(itemResult);
+                    }
+                }
+            }
+        } finally {
+            scratch.release();
+        }
+        return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
+                accumulator.reduce(results), recordDetail ? convertToTemplateList(list) : null, executeResults);
+    }
+
+    /**
+     * Execute the runners without blocking the calling thread, and reduce the results.
+     * The runners are chained in priority order, the invoke context of the calling thread
+     * is restored on the thread which continues the chain.
+     */
+    public <T, R> CompletableFuture<ExecuteResult<R>> reduceExecuteAsync(String extCode, Reducer<T, R> reducer,
+                                                                      ExtensionCallback<IBusinessExt, T> callback,
+                                                                      boolean recordDetail) {
+        List list = isFlat() ? flatRunners() : this.generateInstantItem();
+        int size = list.size();
+        ReduceAccumulator<T, R> accumulator = reducer.newAccumulator();
+        boolean streaming = accumulator instanceof StreamingAccumulator;
+        List<T> results = streaming ? Collections.emptyList() : new ArrayList<>(size);
+        if (size == 0) {
+            return CompletableFuture.completedFuture(ExecuteResult.success(bizInstance.getBizCode(), extCode,
+                    reducer.reduceName(), accumulator.reduce(results), null, null));
+        }
+
+        List<ExtensionRunner.CollectionRunnerExecuteResult> executeResults = recordDetail ? new ArrayList<>(size) : null;
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        CompletableFuture<Boolean> chain = NOT_BROKEN;
+        for (Object item : list) {
+            chain = chain.thenCompose(broken -> broken ? BROKEN : snapshot.call(() -> runItemAsync(item, callback))
+                    .thenApply(executeResult -> snapshot.call(() -> {
+                        List<T> itemResult = executeResult.getResults();
+                        if (recordDetail) {
+                            executeResults.add(executeResult);
+                        }
+                        if (accumulator.willBreak(itemResult)) {
+                            return true;
+                        }
+                        if (!streaming) {
+                            results.addAll(itemResult);
+                        }
+                        return false;
+                    })));
+        }
+        return chain.thenApply(broken -> ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
+                accumulator.reduce(results), recordDetail ? convertToTemplateList(list) : null, executeResults));
+    }
+
+    private CompletableFuture<ExtensionRunner.CollectionRunnerExecuteResult> runItemAsync(
+            Object item, ExtensionCallback callback) {
+        RunnerItemEntry entry;
+        IBizObject bizObject;
+        if (item instanceof InstantItem) {
+            entry = ((InstantItem) item).runnerItemEntry;
+            bizObject = ((InstantItem) item).bizObject;
+        } else {
+            entry = (RunnerItemEntry) item;
+            bizObject = this.bizInstance;
+        }
+        ExtensionRunner.CollectionRunnerExecuteResult executeResult = new ExtensionRunner.CollectionRunnerExecuteResult();
+        return entry.getRunner().runAllMatchedAsync(bizObject, callback, executeResult)
+                .thenApply(values -> {
+                    executeResult.setResults((List) values);
+                    return executeResult;
+                });
+    }
+
+    private <T, R> ExecuteResult<R> parallelReduceExecute(String extCode, Reducer<T, R> reducer,
+                                                          ReduceAccumulator<T, R> accumulator,
+                                                          ExtensionCallback<IBusinessExt, T> callback,
+                                                          List<T> results, boolean recordDetail, List list) {
+        int size = list.size();
+        List<FutureTask<ExtensionRunner.CollectionRunnerExecuteResult>> futures = new ArrayList<>(size);
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        for (Object item : list) {
+            futures.add(ExtensionParallelExecutor.getInstance().submit(
+                    () -> snapshot.call(() -> runItem(item, callback))));
+        }
+        boolean streaming = accumulator instanceof StreamingAccumulator;
+        List<ExtensionRunner.CollectionRunnerExecuteResult> executeResults = recordDetail ? new ArrayList<>(size) : null;
+        try {
+            // 按执行器优先级顺序归并结果，归约中断时取消剩余的执行
+            for (int i = 0; i < size; i++) {
+                ExtensionRunner.CollectionRunnerExecuteResult executeResult = awaitResult(futures.get(i));
+                List<T> itemResult = executeResult.getResults();
+                if (recordDetail) {
+                    executeResults.add(executeResult);
+                }
+                if (accumulator.willBreak(itemResult)) {
+                    return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
+                            accumulator.reduce(results), recordDetail ? convertToTemplateList(list) : null, executeResults);
+                } else if (!streaming) {
                     results.addAll(itemResult);
                 }
             }
+        } finally {
+            for (FutureTask<?> future : futures) {
+                future.cancel(true);
+            }
         }
         return ExecuteResult.success(bizInstance.getBizCode(), extCode, reducer.reduceName(),
-                reducer.reduce(results), convertToTemplateList(list), executeResults);
+                accumulator.reduce(results), recordDetail ? convertToTemplateList(list) : null, executeResults);
+    }
+
+    private ExtensionRunner.CollectionRunnerExecuteResult runItem(Object item, ExtensionCallback callback) {
+        RunnerItemEntry entry;
+        IBizObject bizObject;
+        if (item instanceof InstantItem) {
+            entry = ((InstantItem) item).runnerItemEntry;
+            bizObject = ((InstantItem) item).bizObject;
+        } else {
+            entry = (RunnerItemEntry) item;
+            bizObject = this.bizInstance;
+        }
+        ExtensionRunner.CollectionRunnerExecuteResult executeResult = new ExtensionRunner.CollectionRunnerExecuteResult();
+        ExtensionRunner runner = entry.getRunner();
+        executeResult.setResults(runner.isSingleResult() ?
+                Collections.singletonList(runFirstMatched(runner, bizObject, callback, executeResult)) :
+                runAllMatched(runner, bizObject, callback, executeResult));
+        return executeResult;
+    }
+
+    private static <V> V awaitResult(FutureTask<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LatticeRuntimeException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new LatticeRuntimeException(cause);
+        }
+    }
+
+    private static <T> T runFirstMatched(ExtensionRunner<T> runner, IBizObject bizObject,
+                                         ExtensionCallback<IBusinessExt, T> callback,
+                                         ExtensionRunner.RunnerExecuteResult result) {
+        try {
+            return runner.runFirstMatched(bizObject, callback, result);
+        } catch (Exception ex) {
+            log.error(ex.getMessage(), ex);
+            throw ex;
+        }
+    }
+
+    private static <T> List<T> runAllMatched(ExtensionRunner<T> runner, IBizObject bizObject,
+                                             ExtensionCallback<IBusinessExt, T> callback,
+                                             ExtensionRunner.RunnerExecuteResult result) {
+        try {
+            return runner.runAllMatched(bizObject, callback, result);
+        } catch (Exception ex) {
+            log.error(ex.getMessage(), ex);
+            throw ex;
+        }
     }
 
-    private <T> List<TemplateSpec> convertToTemplateList(List<InstantItem<T>> list) {
+    private static List<TemplateSpec> convertToTemplateList(List list) {
         List<TemplateSpec> templates = new ArrayList<>(list.size());
-        list.forEach(p -> templates.add(p.runnerItemEntry.getTemplate()));
+        for (Object item : list) {
+            templates.add(item instanceof InstantItem ?
+                    ((InstantItem) item).runnerItemEntry.getTemplate() : ((RunnerItemEntry) item).getTemplate());
+        }
         return templates;
     }
 
@@ -215,7 +489,7 @@ public class RunnerCollection<R> {
         RunnerItemEntry<R> produce();
     }
 
-    private class InstantItem<R> {
+    private static class InstantItem<R> {
         RunnerItemEntry<R> runnerItemEntry;
         IBizObject bizObject;
 
@@ -223,17 +497,64 @@ public class RunnerCollection<R> {
             this.runnerItemEntry = runnerItemEntry;
             this.bizObject = bizObject;
         }
+    }
+
+    /**
+     * The per-thread scratch objects of the reduce path, a nested reduce on the same thread
+     * gets its own scratch.
+     */
+    private static class ReduceScratch {
+
+        private static final ThreadLocal<ReduceScratch> SCRATCH = ThreadLocal.withInitial(ReduceScratch::new);
+
+        private final SingleElementList single = new SingleElementList();
+
+        private final ExtensionRunner.CollectionRunnerExecuteResult executeResult =
+                new ExtensionRunner.CollectionRunnerExecuteResult();
+
+        private boolean inUse;
+
+        static ReduceScratch acquire() {
+            ReduceScratch scratch = SCRATCH.get();
+            if (scratch.inUse) {
+                return new ReduceScratch();
+            }
+            scratch.inUse = true;
+            return scratch;
+        }
 
-        @SuppressWarnings("unchecked")
-        public List<R> runAllMatched(
-                ExtensionCallback<IBusinessExt, R> callback, ExtensionRunner.RunnerExecuteResult result) {
-            RunnerItemEntry<R> entry = this.runnerItemEntry;
-            try {
-                return entry.getRunner().runAllMatched(this.bizObject, callback, result);
-            } catch (Exception ex) {
-                log.error(ex.getMessage(), ex);
-                throw ex;
+        void release() {
+            single.value = null;
+            inUse = false;
+        }
+
+        List single(Object value) {
+            single.value = value;
+            return single;
+        }
+
+        ExtensionRunner.CollectionRunnerExecuteResult resetExecuteResult() {
+            executeResult.setExecute(false);
+            executeResult.setRunnerType(null);
+            return executeResult;
+        }
+    }
+
+    private static class SingleElementList extends AbstractList<Object> {
+
+        private Object value;
+
+        @Override
+        public Object get(int index) {
+            if (index != 0) {
+                throw new IndexOutOfBoundsException("Index: " + index);
             }
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return 1;
         }
     }
 }
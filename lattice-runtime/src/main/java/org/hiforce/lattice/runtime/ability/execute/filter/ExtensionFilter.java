@@ -19,6 +19,14 @@ public class ExtensionFilter {
     @Setter
     private ProductFilter productFilter;
 
+    @Getter
+    @Setter
+    private boolean recordDetailResults = false;//Whether build the detail results of each runner;
+
+    @Getter
+    @Setter
+    private boolean parallel = false;//Whether run the runners in parallel, for ReduceType.ALL or NONE;
+
     public static ExtensionFilter of() {
         return new ExtensionFilter();
     }
@@ -51,6 +51,11 @@ public class ExtensionJavaRunner<R> extends ExtensionRunner<R> {
         return Collections.singletonList(runFirstMatched(bizObject, callback, executeResult));
     }
 
+    @Override
+    public boolean isSingleResult() {
+        return true;
+    }
+
     @Override
     public ExtensionRunnerType getType() {
         return ExtensionRunnerType.JAVA;
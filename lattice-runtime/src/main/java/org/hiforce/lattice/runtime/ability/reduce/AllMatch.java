@@ -4,7 +4,9 @@ package org.hiforce.lattice.runtime.ability.reduce;
 import lombok.Getter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
@@ -23,23 +25,11 @@ public class AllMatch<T> extends Reducer<T, Boolean> {
     public AllMatch(@Nonnull Predicate<T> predicate) {
         Objects.requireNonNull(predicate);
         this.predicate = predicate;
-        setResult(true);
     }
 
     @Override
     public boolean willBreak(Collection<T> elements) {
-        if (CollectionUtils.isEmpty(elements)) {
-            return false;
-        } else {
-            for (T element : elements) {
-                if (!predicate.test(element)) {
-                    this.setBreak();
-                    this.setResult(false);
-                    return true;
-                }
-            }
-        }
-        return false;
+        return !matchAll(elements);
     }
 
     @Override
@@ -49,9 +39,51 @@ public class AllMatch<T> extends Reducer<T, Boolean> {
 
     @Override
     public Boolean reduce(Collection<T> elements) {
-        if (isHasBreak()) {
-            return getResult();
+        return matchAll(elements);
+    }
+
+    @Override
+    public Boolean reduceCompleted(Collection<T> elements) {
+        return true;
+    }
+
+    protected boolean matchAll(Collection<T> elements) {
+        if (CollectionUtils.isEmpty(elements)) {
+            return true;
+        }
+        for (T element : elements) {
+            if (!predicate.test(element)) {
+                return false;
+            }
         }
         return true;
     }
+
+    @Override
+    public ReduceAccumulator<T, Boolean> newAccumulator() {
+        return new StreamingAccumulator<T, Boolean>(this) {
+            private boolean failed;
+
+            private boolean accumulated;
+
+            @Override
+            public boolean accumulate(T element) {
+                accumulated = true;
+                failed = !predicate.test(element);
+                return failed;
+            }
+
+            @Override
+            public Boolean finish() {
+                return !failed && (accumulated || !isRequireNotEmpty());
+            }
+        };
+    }
+
+    /**
+     * @return whether the reduce result is false when there's no result at all.
+     */
+    protected boolean isRequireNotEmpty() {
+        return false;
+    }
 }
@@ -14,8 +14,16 @@ public class AllMatchNotEmpty<T> extends AllMatch<T> {
 
     @Override
     public Boolean reduce(Collection<T> elements) {
-        if (isHasBreak())
-            return getResult();
+        return !CollectionUtils.isEmpty(elements) && matchAll(elements);
+    }
+
+    @Override
+    public Boolean reduceCompleted(Collection<T> elements) {
         return !CollectionUtils.isEmpty(elements);
     }
+
+    @Override
+    protected boolean isRequireNotEmpty() {
+        return true;
+    }
 }
@@ -3,7 +3,9 @@ package org.hiforce.lattice.runtime.ability.reduce;
 import lombok.Getter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
@@ -22,18 +24,34 @@ public class AnyMatch<T> extends Reducer<T, Boolean> {
     public AnyMatch(@Nonnull Predicate<T> predicate) {
         Objects.requireNonNull(predicate);
         this.predicate = predicate;
-        this.setResult(false);
     }
 
     @Override
     public boolean willBreak(Collection<T> elements) {
+        return matchAny(elements);
+    }
+
+    @Override
+    public ReduceType reducerType() {
+        return ReduceType.FIRST;
+    }
+
+    @Override
+    public Boolean reduce(Collection<T> elements) {
+        return matchAny(elements);
+    }
+
+    @Override
+    public Boolean reduceCompleted(Collection<T> elements) {
+        return false;
+    }
+
+    private boolean matchAny(Collection<T> elements) {
         if (CollectionUtils.isEmpty(elements)) {
             return false;
         }
         for (T element : elements) {
             if (predicate.test(element)) {
-                this.setBreak();
-                this.setResult(true);
                 return true;
             }
         }
@@ -41,15 +59,20 @@ public class AnyMatch<T> extends Reducer<T, Boolean> {
     }
 
     @Override
-    public ReduceType reducerType() {
-        return ReduceType.FIRST;
-    }
+    public ReduceAccumulator<T, Boolean> newAccumulator() {
+        return new StreamingAccumulator<T, Boolean>(this) {
+            private boolean matched;
 
-    @Override
-    public Boolean reduce(Collection<T> elements) {
-        if (isHasBreak()) {
-            return getResult();
-        }
-        return false;
+            @Override
+            public boolean accumulate(T element) {
+                matched = predicate.test(element);
+                return matched;
+            }
+
+            @Override
+            public Boolean finish() {
+                return matched;
+            }
+        };
     }
 }
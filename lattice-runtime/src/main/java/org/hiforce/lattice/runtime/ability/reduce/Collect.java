@@ -3,7 +3,9 @@ package org.hiforce.lattice.runtime.ability.reduce;
 import lombok.Getter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
@@ -53,4 +55,24 @@ public class Collect<T> extends Reducer<T, List<T>> {
         return results;
 
     }
+
+    @Override
+    public ReduceAccumulator<T, List<T>> newAccumulator() {
+        return new StreamingAccumulator<T, List<T>>(this) {
+            private final List<T> results = new ArrayList<>(10);
+
+            @Override
+            public boolean accumulate(T element) {
+                if (predicate.test(element)) {
+                    results.add(element);
+                }
+                return false;
+            }
+
+            @Override
+            public List<T> finish() {
+                return results;
+            }
+        };
+    }
 }
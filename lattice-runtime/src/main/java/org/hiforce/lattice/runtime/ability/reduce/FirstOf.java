@@ -2,7 +2,9 @@ package org.hiforce.lattice.runtime.ability.reduce;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -16,7 +18,7 @@ import java.util.function.Predicate;
  */
 public class FirstOf<T> extends Reducer<T, T> {
 
-    private Predicate<T> predicate;
+    private final Predicate<T> predicate;
 
     public FirstOf(@Nonnull Predicate<T> predicate) {
         Objects.requireNonNull(predicate);
@@ -24,6 +26,7 @@ public class FirstOf<T> extends Reducer<T, T> {
     }
 
     public FirstOf() {
+        this.predicate = null;
     }
 
     @Override
@@ -34,8 +37,6 @@ public class FirstOf<T> extends Reducer<T, T> {
 
         for (T element : elements) {
             if (null == predicate || predicate.test(element)) {
-                this.setResult(element);
-                this.setBreak();
                 return true;
             }
         }
@@ -51,11 +52,6 @@ public class FirstOf<T> extends Reducer<T, T> {
     @Nullable
     @Override
     public T reduce(Collection<T> elements) {
-
-        if (isHasBreak()) {
-            return getResult();
-        }
-
         if (CollectionUtils.isEmpty(elements)) {
             return null;
         }
@@ -69,4 +65,31 @@ public class FirstOf<T> extends Reducer<T, T> {
         return null;
     }
 
+    @Nullable
+    @Override
+    public T reduceCompleted(Collection<T> elements) {
+        // 未中断说明没有满足条件的结果
+        return null;
+    }
+
+    @Override
+    public ReduceAccumulator<T, T> newAccumulator() {
+        return new StreamingAccumulator<T, T>(this) {
+            private T result;
+
+            @Override
+            public boolean accumulate(T element) {
+                if (null == predicate || predicate.test(element)) {
+                    this.result = element;
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public T finish() {
+                return result;
+            }
+        };
+    }
 }
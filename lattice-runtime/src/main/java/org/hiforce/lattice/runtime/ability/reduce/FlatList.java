@@ -4,7 +4,9 @@ import com.google.common.collect.Lists;
 import lombok.Getter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
@@ -51,4 +53,24 @@ public class FlatList<T> extends Reducer<List<T>, List<T>> {
         return results;
 
     }
+
+    @Override
+    public ReduceAccumulator<List<T>, List<T>> newAccumulator() {
+        return new StreamingAccumulator<List<T>, List<T>>(this) {
+            private final List<T> results = Lists.newArrayList();
+
+            @Override
+            public boolean accumulate(List<T> element) {
+                if (predicate.test(element) && CollectionUtils.isNotEmpty(element)) {
+                    results.addAll(element);
+                }
+                return false;
+            }
+
+            @Override
+            public List<T> finish() {
+                return results;
+            }
+        };
+    }
 }
@@ -4,7 +4,9 @@ import com.google.common.collect.Maps;
 import lombok.Getter;
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
@@ -53,4 +55,24 @@ public class FlatMap<K, V> extends Reducer<Map<K, V>, Map<K, V>> {
         }
         return results;
     }
+
+    @Override
+    public ReduceAccumulator<Map<K, V>, Map<K, V>> newAccumulator() {
+        return new StreamingAccumulator<Map<K, V>, Map<K, V>>(this) {
+            private final Map<K, V> results = Maps.newHashMap();
+
+            @Override
+            public boolean accumulate(Map<K, V> element) {
+                if (predicate.test(element)) {
+                    results.putAll(element);
+                }
+                return false;
+            }
+
+            @Override
+            public Map<K, V> finish() {
+                return results;
+            }
+        };
+    }
 }
@@ -3,7 +3,9 @@ package org.hiforce.lattice.runtime.ability.reduce;
 import com.google.common.collect.Lists;
 import org.apache.commons.collections4.CollectionUtils;
 import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
 import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
 
 import java.util.Collection;
 import java.util.List;
@@ -33,9 +35,24 @@ public class None<T> extends Reducer<T, List<T>> {
         if (CollectionUtils.isEmpty(elements)) {
             return Lists.newArrayList();
         }
-        List<T> results = Lists.newArrayList();
-        results.addAll(elements);
-        return results;
+        return Lists.newArrayList(elements);
     }
 
+    @Override
+    public ReduceAccumulator<T, List<T>> newAccumulator() {
+        return new StreamingAccumulator<T, List<T>>(this) {
+            private final List<T> results = Lists.newArrayList();
+
+            @Override
+            public boolean accumulate(T element) {
+                results.add(element);
+                return false;
+            }
+
+            @Override
+            public List<T> finish() {
+                return results;
+            }
+        };
+    }
 }
@@ -18,23 +18,11 @@ public class NoneMatch<T> extends Reducer<T, Boolean> {
     public NoneMatch(@Nonnull Predicate<T> predicate) {
         Objects.requireNonNull(predicate);
         this.predicate = predicate;
-        this.setResult(true);
     }
 
     @Override
     public boolean willBreak(Collection<T> elements) {
-        if (CollectionUtils.isEmpty(elements)) {
-            return true;
-        }
-
-        for (T element : elements) {
-            if (predicate.test(element)) {
-                this.setBreak();
-                this.setResult(false);
-                return true;
-            }
-        }
-        return false;
+        return CollectionUtils.isEmpty(elements) || !matchNone(elements);
     }
 
     @Override
@@ -44,6 +32,23 @@ public class NoneMatch<T> extends Reducer<T, Boolean> {
 
     @Override
     public Boolean reduce(Collection<T> elements) {
-        return isHasBreak() ? getResult() : true;
+        return matchNone(elements);
+    }
+
+    @Override
+    public Boolean reduceCompleted(Collection<T> elements) {
+        return true;
+    }
+
+    private boolean matchNone(Collection<T> elements) {
+        if (CollectionUtils.isEmpty(elements)) {
+            return true;
+        }
+        for (T element : elements) {
+            if (predicate.test(element)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
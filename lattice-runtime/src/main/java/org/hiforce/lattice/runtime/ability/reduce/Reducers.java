@@ -14,13 +14,19 @@ import java.util.function.Predicate;
 @SuppressWarnings("all")
 public class Reducers {
 
+    // 内置的 Reducer 均为无状态实现，无条件的 Reducer 全局共享一个实例
+    private static final Reducer<?, ?> NONE = new None<>();
+
+    private static final Reducer<?, ?> FIRST_OF = new FirstOf<>();
+
     /**
      * No reduce policy needed.
      *
      * @return None type reducer
      */
+    @SuppressWarnings("unchecked")
     public static <T> Reducer<T, List<T>> none() {
-        return new None<>();
+        return (Reducer<T, List<T>>) NONE;
     }
 
     /**
@@ -39,8 +45,9 @@ public class Reducers {
      *
      * @return FirstOf Policy Reducer.
      */
+    @SuppressWarnings("unchecked")
     public static <T> Reducer<T, T> firstOf() {
-        return new FirstOf<>();
+        return (Reducer<T, T>) FIRST_OF;
     }
 
     /**
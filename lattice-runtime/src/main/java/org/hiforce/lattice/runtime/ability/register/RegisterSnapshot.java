@@ -0,0 +1,198 @@
+package org.hiforce.lattice.runtime.ability.register;
+
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.hiforce.lattice.model.business.TemplateType;
+import org.hiforce.lattice.model.register.BusinessSpec;
+import org.hiforce.lattice.model.register.ProductSpec;
+import org.hiforce.lattice.model.register.RealizationSpec;
+import org.hiforce.lattice.model.register.TemplateSpec;
+import org.hiforce.lattice.model.register.UseCaseSpec;
+import org.hiforce.lattice.utils.BizCodeUtils;
+import org.hiforce.lattice.utils.CodePattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The immutable snapshot of the registered templates and realizations, indexed by code.
+ * A new snapshot is published by {@link TemplateRegister} on every mutation. The wildcard
+ * realizations are kept aside with their compiled code patterns, the realizations matching
+ * a specific code are resolved once per snapshot.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@SuppressWarnings("rawtypes")
+public class RegisterSnapshot {
+
+    private static final int MAX_MATCHED_CODES = 4096;
+
+    static final RegisterSnapshot EMPTY = new RegisterSnapshot(Collections.emptyList(),
+            Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    @Getter
+    private final List<RealizationSpec> realizations;
+
+    @Getter
+    private final List<ProductSpec> products;
+
+    @Getter
+    private final List<UseCaseSpec> useCases;
+
+    @Getter
+    private final List<BusinessSpec> businesses;
+
+    private final Map<String, BusinessSpec> businessIndex;
+
+    private final Map<String, ProductSpec> productIndex;
+
+    private final Map<String, UseCaseSpec> useCaseIndex;
+
+    private final Map<String, List<RealizationSpec>> realizationIndex;
+
+    private final Map<String, List<RealizationSpec>> extRealizationIndex;
+
+    /**
+     * The realizations registered with a wildcard code, with their compiled patterns.
+     */
+    private final List<RealizationSpec> wildcardRealizations;
+
+    private final List<CodePattern> wildcardPatterns;
+
+    private final Map<RealizationSpec, Integer> realizationOrder;
+
+    /**
+     * The realizations matching a specific code, resolved once per snapshot.
+     */
+    private final Map<String, List<RealizationSpec>> matchedRealizations = new ConcurrentHashMap<>();
+
+    RegisterSnapshot(List<RealizationSpec> realizations, List<ProductSpec> products,
+                     List<UseCaseSpec> useCases, List<BusinessSpec> businesses) {
+        this.realizations = Collections.unmodifiableList(new ArrayList<>(realizations));
+        this.products = Collections.unmodifiableList(new ArrayList<>(products));
+        this.useCases = Collections.unmodifiableList(new ArrayList<>(useCases));
+        this.businesses = Collections.unmodifiableList(new ArrayList<>(businesses));
+        this.businessIndex = indexByCode(this.businesses);
+        this.productIndex = indexByCode(this.products);
+        this.useCaseIndex = indexByCode(this.useCases);
+
+        Map<String, List<RealizationSpec>> byCode = new HashMap<>();
+        Map<String, List<RealizationSpec>> byExtCode = new HashMap<>();
+        List<RealizationSpec> wildcards = new ArrayList<>();
+        List<CodePattern> patterns = new ArrayList<>();
+        Map<RealizationSpec, Integer> order = new IdentityHashMap<>(this.realizations.size() * 2);
+        for (int i = 0; i < this.realizations.size(); i++) {
+            RealizationSpec spec = this.realizations.get(i);
+            order.putIfAbsent(spec, i);
+            byCode.computeIfAbsent(spec.getCode(), k -> new ArrayList<>(2)).add(spec);
+            if (BizCodeUtils.isPatternCode(spec.getCode())) {
+                wildcards.add(spec);
+                patterns.add(BizCodeUtils.getCodePattern(spec.getCode()));
+            }
+            for (String extCode : spec.getExtensionCodes()) {
+                byExtCode.computeIfAbsent(extCode, k -> new ArrayList<>(4)).add(spec);
+            }
+        }
+        this.realizationIndex = freeze(byCode);
+        this.extRealizationIndex = freeze(byExtCode);
+        this.wildcardRealizations = wildcards;
+        this.wildcardPatterns = patterns;
+        this.realizationOrder = order;
+    }
+
+    public BusinessSpec getBusinessByCode(String code) {
+        return null == code ? null : businessIndex.get(code);
+    }
+
+    public ProductSpec getProductByCode(String code) {
+        return null == code ? null : productIndex.get(code);
+    }
+
+    public UseCaseSpec getUseCaseByCode(String code) {
+        return null == code ? null : useCaseIndex.get(code);
+    }
+
+    public TemplateSpec getTemplateSpec(String code, TemplateType type) {
+        if (type == TemplateType.BUSINESS) {
+            return getBusinessByCode(code);
+        } else if (type == TemplateType.PRODUCT) {
+            return getProductByCode(code);
+        } else if (type == TemplateType.USE_CASE) {
+            return getUseCaseByCode(code);
+        }
+        return null;
+    }
+
+    /**
+     * @param code the exact realization code, without wildcard matching.
+     * @return the realizations registered with the code.
+     */
+    public List<RealizationSpec> getRealizationsByCode(String code) {
+        List<RealizationSpec> specs = null == code ? null : realizationIndex.get(code);
+        return null == specs ? Collections.emptyList() : specs;
+    }
+
+    /**
+     * @param code the specific code, e.g. the bizCode of a business.
+     * @return the realizations whose code equals or wildcard matches the code, in the registration order.
+     */
+    public List<RealizationSpec> getRealizationsMatchingCode(String code) {
+        if (null == code) {
+            return Collections.emptyList();
+        }
+        List<RealizationSpec> specs = matchedRealizations.get(code);
+        if (null == specs) {
+            specs = resolveMatchingRealizations(code);
+            if (matchedRealizations.size() < MAX_MATCHED_CODES) {
+                matchedRealizations.putIfAbsent(code, specs);
+            }
+        }
+        return specs;
+    }
+
+    private List<RealizationSpec> resolveMatchingRealizations(String code) {
+        List<RealizationSpec> exact = getRealizationsByCode(code);
+        List<RealizationSpec> matched = new ArrayList<>(exact);
+        for (int i = 0; i < wildcardRealizations.size(); i++) {
+            RealizationSpec spec = wildcardRealizations.get(i);
+            // 通配的code与查询的code相同时已在精确匹配中
+            if (!StringUtils.equals(spec.getCode(), code) && wildcardPatterns.get(i).matches(code)) {
+                matched.add(spec);
+            }
+        }
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!exact.isEmpty() && matched.size() > exact.size()) {
+            matched.sort(Comparator.comparingInt(realizationOrder::get));
+        }
+        return Collections.unmodifiableList(matched);
+    }
+
+    public List<RealizationSpec> getRealizationsByExtCode(String extCode) {
+        List<RealizationSpec> specs = null == extCode ? null : extRealizationIndex.get(extCode);
+        return null == specs ? Collections.emptyList() : specs;
+    }
+
+    private static <T extends TemplateSpec> Map<String, T> indexByCode(List<T> specs) {
+        Map<String, T> index = new HashMap<>(specs.size() * 2);
+        for (T spec : specs) {
+            if (null != spec.getCode()) {
+                index.putIfAbsent(spec.getCode(), spec);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static <V> Map<String, List<V>> freeze(Map<String, List<V>> index) {
+        index.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        return Collections.unmodifiableMap(index);
+    }
+}
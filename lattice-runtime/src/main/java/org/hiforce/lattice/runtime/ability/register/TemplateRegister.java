@@ -11,7 +11,6 @@ import org.hiforce.lattice.model.business.BusinessTemplate;
 import org.hiforce.lattice.model.register.*;
 import org.hiforce.lattice.model.scenario.ScenarioRequest;
 import org.hiforce.lattice.runtime.cache.index.TemplateIndex;
-import org.hiforce.lattice.utils.BizCodeUtils;
 import org.hiforce.lattice.utils.BusinessExtUtils;
 
 import java.lang.reflect.Method;
@@ -31,18 +30,20 @@ public class TemplateRegister {
 
     private static TemplateRegister instance;
 
-    @Getter
     private final List<RealizationSpec> realizations = Lists.newArrayList();
 
-    @Getter
     private final List<ProductSpec> products = Lists.newArrayList();
 
-    @Getter
     private final List<UseCaseSpec> useCases = Lists.newArrayList();
 
-    @Getter
     private final List<BusinessSpec> businesses = Lists.newArrayList();
 
+    /**
+     * The published read view, replaced as a whole on every mutation.
+     */
+    @Getter
+    private volatile RegisterSnapshot snapshot = RegisterSnapshot.EMPTY;
+
     private TemplateRegister() {
 
     }
@@ -54,9 +55,37 @@ public class TemplateRegister {
         return instance;
     }
 
+    /**
+     * @return a copy of the registered realizations, changes to the copy are not registered.
+     */
+    public List<RealizationSpec> getRealizations() {
+        return Lists.newArrayList(snapshot.getRealizations());
+    }
+
+    /**
+     * @return a copy of the registered products, changes to the copy are not registered.
+     */
+    public List<ProductSpec> getProducts() {
+        return Lists.newArrayList(snapshot.getProducts());
+    }
+
+    /**
+     * @return a copy of the registered use cases, changes to the copy are not registered.
+     */
+    public List<UseCaseSpec> getUseCases() {
+        return Lists.newArrayList(snapshot.getUseCases());
+    }
+
+    /**
+     * @return a copy of the registered businesses, changes to the copy are not registered.
+     */
+    public List<BusinessSpec> getBusinesses() {
+        return Lists.newArrayList(snapshot.getBusinesses());
+    }
+
     public BusinessTemplate getFirstMatchedBusiness(ScenarioRequest request) {
-        return businesses.stream()
-                .map(BusinessSpec::newInstance)
+        return snapshot.getBusinesses().stream()
+                .map(BusinessSpec::getTemplateInstance)
                 .filter(p -> p.isEffect(request))
                 .findFirst().orElse(null);
     }
@@ -76,13 +105,13 @@ public class TemplateRegister {
                 businessSpec.setName(annotation.getName());
                 businessSpec.setDescription(annotation.getDesc());
                 businessSpec.setPriority(annotation.getPriority());
-                businessSpec.getRealizations().addAll(realizations.stream()
-                        .filter(p -> BizCodeUtils.isCodesMatched(p.getCode(), businessSpec.getCode()))
-                        .collect(Collectors.toList()));
+                // 每次变更都会发布快照，此处快照中的扩展实现与realizations一致
+                businessSpec.getRealizations().addAll(snapshot.getRealizationsMatchingCode(businessSpec.getCode()));
                 TemplateIndex.getInstance().addTemplateIndex(businessSpec);
                 businesses.add(businessSpec);
                 businessSpecs.add(businessSpec);
             }
+            publish();
         }
         return businessSpecs;
     }
@@ -118,6 +147,7 @@ public class TemplateRegister {
                 useCaseSpecs.add(spec);
             }
             useCases.sort(Comparator.comparingInt(UseCaseSpec::getPriority));
+            publish();
         }
         return useCaseSpecs;
     }
@@ -149,6 +179,7 @@ public class TemplateRegister {
         spec.setCode(annotation.getCode());
         spec.setName(StringUtils.isEmpty(annotation.getName()) ? invokeMethod.getName() : annotation.getName());
         spec.setReduceType(annotation.getReduceType());
+        spec.setParallel(annotation.isParallel());
         spec.setDescription(annotation.getDesc());
         return spec;
     }
@@ -175,6 +206,7 @@ public class TemplateRegister {
                 productSpecs.add(productSpec);
             }
             products.sort(Comparator.comparingInt(ProductSpec::getPriority));
+            publish();
         }
         return productSpecs;
     }
@@ -203,16 +235,66 @@ public class TemplateRegister {
                     realizationSpecs.add(spec);
                 }
             }
+            publish();
         }
         return realizationSpecs;
     }
 
+    public synchronized void addBusiness(BusinessSpec businessSpec) {
+        synchronized (TemplateRegister.class) {
+            businesses.add(businessSpec);
+            publish();
+        }
+    }
+
+    public synchronized void removeBusiness(String bizCode) {
+        synchronized (TemplateRegister.class) {
+            businesses.removeIf(p -> StringUtils.equals(p.getCode(), bizCode));
+            realizations.removeIf(p -> StringUtils.equals(p.getCode(), bizCode));
+            publish();
+        }
+    }
+
+    public synchronized void removeProduct(String code) {
+        synchronized (TemplateRegister.class) {
+            products.removeIf(p -> StringUtils.equals(p.getCode(), code));
+            realizations.removeIf(p -> StringUtils.equals(p.getCode(), code));
+            publish();
+        }
+    }
+
+    public synchronized void clearBusinesses() {
+        synchronized (TemplateRegister.class) {
+            businesses.clear();
+            publish();
+        }
+    }
+
+    public synchronized void clearProducts() {
+        synchronized (TemplateRegister.class) {
+            products.clear();
+            publish();
+        }
+    }
+
+    public synchronized void clearUseCases() {
+        synchronized (TemplateRegister.class) {
+            useCases.clear();
+            publish();
+        }
+    }
+
     public synchronized void clear() {
         synchronized (TemplateRegister.class) {
             realizations.clear();
             products.clear();
             useCases.clear();
             businesses.clear();
+            snapshot = RegisterSnapshot.EMPTY;
         }
     }
+
+    private void publish() {
+        snapshot = new RegisterSnapshot(realizations, products, useCases, businesses);
+    }
 }
@@ -0,0 +1,129 @@
+package org.hiforce.lattice.runtime.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import lombok.Getter;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The size bounded cache, with the optional expiration after access. The entries are evicted
+ * in the segmented LRU order once the maximum size is reached.
+ * <p>
+ * The limits are configured per cache via the system properties:
+ * <pre>
+ * lattice.cache.[name].maxSize            the maximum entries, 0 means unbounded.
+ * lattice.cache.[name].expireAfterAccess  the seconds to expire after the last access, 0 means never.
+ * </pre>
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class BoundedCache<K, V> {
+
+    public static final String PROPERTY_PREFIX = "lattice.cache.";
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final long maxSize;
+
+    @Getter
+    private final long expireAfterAccess;
+
+    private final Cache<K, V> cache;
+
+    private BoundedCache(String name, long maxSize, long expireAfterAccess) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.expireAfterAccess = expireAfterAccess;
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .recordStats();
+        if (maxSize > 0) {
+            builder.maximumSize(maxSize);
+        }
+        if (expireAfterAccess > 0) {
+            builder.expireAfterAccess(expireAfterAccess, TimeUnit.SECONDS);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * @param name           the cache name, used to lookup the configured limits.
+     * @param defaultMaxSize the maximum entries when not configured.
+     */
+    public static <K, V> BoundedCache<K, V> of(String name, long defaultMaxSize) {
+        return new BoundedCache<>(name,
+                Long.getLong(PROPERTY_PREFIX + name + ".maxSize", defaultMaxSize),
+                Long.getLong(PROPERTY_PREFIX + name + ".expireAfterAccess", 0L));
+    }
+
+    public V get(K key) {
+        return null == key ? null : cache.getIfPresent(key);
+    }
+
+    /**
+     * Get the cached value, or compute it by the loader. The loader runs at most once per absent key,
+     * the concurrent callers of the same key wait for it, the other keys are not blocked.
+     *
+     * @return the value, or null if the loader computes null, which is not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        try {
+            return cache.get(key, () -> loader.apply(key));
+        } catch (CacheLoader.InvalidCacheLoadException ex) {
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    /**
+     * @return the existed value, or null if the value is put.
+     */
+    public V putIfAbsent(K key, V value) {
+        return cache.asMap().putIfAbsent(key, value);
+    }
+
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateIf(Predicate<? super K> predicate) {
+        cache.asMap().keySet().removeIf(predicate);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public LatticeCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new LatticeCacheStats(name, cache.size(), maxSize,
+                stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+}
@@ -1,5 +1,8 @@
 package org.hiforce.lattice.runtime.cache;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * @author Rocky Yu
  * @since 2022/10/10
@@ -9,4 +12,11 @@ public interface LatticeCache {
     void init();
 
     void clear();
+
+    /**
+     * @return the statistics of the bounded caches held by this cache.
+     */
+    default List<LatticeCacheStats> getStats() {
+        return Collections.emptyList();
+    }
 }
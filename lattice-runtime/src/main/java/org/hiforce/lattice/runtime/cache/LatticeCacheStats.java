@@ -0,0 +1,53 @@
+package org.hiforce.lattice.runtime.cache;
+
+import lombok.Getter;
+
+/**
+ * The statistics of a {@link BoundedCache}, to size the caches in production.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class LatticeCacheStats {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final long size;
+
+    /**
+     * The maximum entries, 0 means unbounded.
+     */
+    @Getter
+    private final long maxSize;
+
+    @Getter
+    private final long hitCount;
+
+    @Getter
+    private final long missCount;
+
+    @Getter
+    private final long evictionCount;
+
+    public LatticeCacheStats(String name, long size, long maxSize, long hitCount, long missCount, long evictionCount) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + name + "] size: " + size + "/" + maxSize + ", hit: " + hitCount
+                + ", miss: " + missCount + ", eviction: " + evictionCount;
+    }
+}
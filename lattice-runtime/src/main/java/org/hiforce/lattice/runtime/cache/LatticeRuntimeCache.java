@@ -2,16 +2,24 @@ package org.hiforce.lattice.runtime.cache;
 
 import com.google.auto.service.AutoService;
 import lombok.Getter;
-import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.cache.ILatticeRuntimeCache;
+import org.hiforce.lattice.model.business.BizSessionKey;
 import org.hiforce.lattice.runtime.ability.cache.AbilityInstCache;
 import org.hiforce.lattice.runtime.ability.cache.BusinessExtCache;
+import org.hiforce.lattice.runtime.ability.execute.ExtensionInvokeRecorder;
 import org.hiforce.lattice.runtime.ability.register.TemplateRegister;
 import org.hiforce.lattice.runtime.cache.ability.AbilityCache;
+import org.hiforce.lattice.runtime.cache.ability.ExecutePlanCache;
 import org.hiforce.lattice.runtime.cache.config.BusinessConfigCache;
 import org.hiforce.lattice.runtime.cache.exension.ExtensionCache;
 import org.hiforce.lattice.runtime.cache.exension.ExtensionInvokeCache;
+import org.hiforce.lattice.runtime.cache.session.EffectiveTemplateCache;
 import org.hiforce.lattice.runtime.cache.index.TemplateIndex;
+import org.hiforce.lattice.runtime.cache.key.CodeIndex;
+import org.hiforce.lattice.runtime.utils.LatticeBeanUtils;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Rocky Yu
@@ -39,23 +47,40 @@ public class LatticeRuntimeCache implements ILatticeRuntimeCache, LatticeCache {
     @Getter
     private final BusinessExtCache businessExtCache = BusinessExtCache.getInstance();
 
+    @Getter
+    private final ExtensionInvokeRecorder invokeRecorder = ExtensionInvokeRecorder.getInstance();
+
+    @Getter
+    private final ExecutePlanCache executePlanCache = ExecutePlanCache.getInstance();
+
+    @Getter
+    private final EffectiveTemplateCache effectiveTemplateCache = EffectiveTemplateCache.getInstance();
+
     public synchronized void clearProductCache(String code) {
-        TemplateRegister.getInstance().getProducts().removeIf(p -> StringUtils.equals(p.getCode(), code));
-        TemplateRegister.getInstance().getRealizations().removeIf(p -> StringUtils.equals(p.getCode(), code));
+        TemplateRegister.getInstance().removeProduct(code);
         TemplateIndex.getInstance().remove(code);
         ExtensionInvokeCache.getInstance().clear();
         BusinessExtCache.getInstance().clear();
         AbilityCache.getInstance().clear();
+        ExtensionInvokeRecorder.getInstance().clear();
+        ExecutePlanCache.getInstance().clear();
+        EffectiveTemplateCache.getInstance().clear();
+        CodeIndex.clearCache();
+        BizSessionKey.clearCache();
     }
 
     public synchronized void clearBusinessCache(String bizCode) {
-        TemplateRegister.getInstance().getBusinesses().removeIf(p -> StringUtils.equals(p.getCode(), bizCode));
-        TemplateRegister.getInstance().getRealizations().removeIf(p -> StringUtils.equals(p.getCode(), bizCode));
+        TemplateRegister.getInstance().removeBusiness(bizCode);
         TemplateIndex.getInstance().remove(bizCode);
         ExtensionInvokeCache.getInstance().clear();
         BusinessConfigCache.getInstance().removeBusinessConfig(bizCode);
         BusinessExtCache.getInstance().clear();
         AbilityCache.getInstance().clear();
+        ExtensionInvokeRecorder.getInstance().clear();
+        ExecutePlanCache.getInstance().clear();
+        EffectiveTemplateCache.getInstance().clear();
+        CodeIndex.clearCache();
+        BizSessionKey.clearCache();
     }
 
 
@@ -70,9 +95,26 @@ public class LatticeRuntimeCache implements ILatticeRuntimeCache, LatticeCache {
         getInvokeCache().init();
         getBusinessConfigCache().init();
         getBusinessExtCache().init();
+        getInvokeRecorder().init();
+        getExecutePlanCache().init();
+        getEffectiveTemplateCache().init();
         AbilityInstCache.getInstance().init();
     }
 
+    /**
+     * @return the statistics of all the bounded runtime caches.
+     */
+    @Override
+    public List<LatticeCacheStats> getStats() {
+        List<LatticeCacheStats> stats = new ArrayList<>();
+        stats.addAll(getAbilityCache().getStats());
+        stats.addAll(getInvokeCache().getStats());
+        stats.addAll(getBusinessExtCache().getStats());
+        stats.addAll(getExecutePlanCache().getStats());
+        stats.addAll(getEffectiveTemplateCache().getStats());
+        return stats;
+    }
+
     public synchronized void clear() {
         getTemplateIndex().clear();
         getExtensionCache().clear();
@@ -80,6 +122,12 @@ public class LatticeRuntimeCache implements ILatticeRuntimeCache, LatticeCache {
         getInvokeCache().clear();
         getBusinessConfigCache().clear();
         getBusinessExtCache().clear();
+        getInvokeRecorder().clear();
+        getExecutePlanCache().clear();
+        getEffectiveTemplateCache().clear();
         AbilityInstCache.getInstance().clear();
+        LatticeBeanUtils.clearCache();
+        CodeIndex.clearCache();
+        BizSessionKey.clearCache();
     }
 }
@@ -1,15 +1,16 @@
 package org.hiforce.lattice.runtime.cache.ability;
 
-import com.google.common.collect.Maps;
-import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.annotation.model.AbilityAnnotation;
 import org.hiforce.lattice.model.register.AbilitySpec;
+import org.hiforce.lattice.runtime.cache.BoundedCache;
 import org.hiforce.lattice.runtime.cache.LatticeCache;
+import org.hiforce.lattice.runtime.cache.LatticeCacheStats;
 import org.hiforce.lattice.runtime.cache.key.ExtensionRunnerCacheKey;
 
 import java.util.Collection;
-import java.util.Map;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -23,7 +24,8 @@ public class AbilityCache implements LatticeCache {
 
     private final ConcurrentMap<String, AbilitySpec> ABILITY_SPEC_CACHE = new ConcurrentHashMap<>(120);
 
-    private final Map<Class<?>, Map<Long, Object>> ABILITY_RUNNER_CACHE = Maps.newConcurrentMap();
+    private final BoundedCache<AbilityRunnerKey, Object> ABILITY_RUNNER_CACHE =
+            BoundedCache.of("abilityRunner", 10000);
 
     private AbilityCache() {
 
@@ -47,21 +49,16 @@ public class AbilityCache implements LatticeCache {
         ABILITY_RUNNER_CACHE.clear();
     }
 
+    public void clearExtensionRunners() {
+        ABILITY_RUNNER_CACHE.clear();
+    }
+
     public void doCacheExtensionRunner(Class<?> abilityClass, ExtensionRunnerCacheKey key, Object runner) {
-        Map<Long, Object> cache = ABILITY_RUNNER_CACHE.get(abilityClass);
-        if (MapUtils.isEmpty(cache)) {
-            cache = new ConcurrentHashMap<>(200);
-            ABILITY_RUNNER_CACHE.put(abilityClass, cache);
-        }
-        cache.put(key.getUniqueId(), runner);
+        ABILITY_RUNNER_CACHE.put(new AbilityRunnerKey(abilityClass, key), runner);
     }
 
     public Object getCachedExtensionRunner(Class<?> abilityClass, ExtensionRunnerCacheKey key) {
-        Map<Long, Object> cache = ABILITY_RUNNER_CACHE.get(abilityClass);
-        if (null == cache) {
-            return null;
-        }
-        return cache.get(key.getUniqueId());
+        return ABILITY_RUNNER_CACHE.get(new AbilityRunnerKey(abilityClass, key));
     }
 
     public AbilitySpec doCacheAbilitySpec(AbilityAnnotation ability, Class<?> targetClass) {
@@ -93,4 +90,34 @@ public class AbilityCache implements LatticeCache {
     public Collection<AbilitySpec> getAllCachedAbilities() {
         return ABILITY_SPEC_CACHE.values();
     }
+
+    @Override
+    public List<LatticeCacheStats> getStats() {
+        return Collections.singletonList(ABILITY_RUNNER_CACHE.getStats());
+    }
+
+    private static class AbilityRunnerKey {
+
+        private final Class<?> abilityClass;
+
+        private final ExtensionRunnerCacheKey key;
+
+        private AbilityRunnerKey(Class<?> abilityClass, ExtensionRunnerCacheKey key) {
+            this.abilityClass = abilityClass;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            AbilityRunnerKey that = (AbilityRunnerKey) o;
+            return abilityClass == that.abilityClass && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * abilityClass.hashCode() + key.hashCode();
+        }
+    }
 }
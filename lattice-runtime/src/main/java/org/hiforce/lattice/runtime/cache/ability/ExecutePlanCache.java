@@ -0,0 +1,77 @@
+package org.hiforce.lattice.runtime.cache.ability;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hiforce.lattice.runtime.ability.execute.ExtensionExecutePlan;
+import org.hiforce.lattice.runtime.cache.BoundedCache;
+import org.hiforce.lattice.runtime.cache.LatticeCache;
+import org.hiforce.lattice.runtime.cache.LatticeCacheStats;
+import org.hiforce.lattice.runtime.cache.key.ExecutePlanCacheKey;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@SuppressWarnings("rawtypes")
+public class ExecutePlanCache implements LatticeCache {
+
+    private static ExecutePlanCache instance;
+
+    private static final Object lock = new Object();
+
+    private final BoundedCache<ExecutePlanCacheKey, ExtensionExecutePlan> EXECUTE_PLAN_CACHE =
+            BoundedCache.of("executePlan", 10000);
+
+    private ExecutePlanCache() {
+
+    }
+
+    public static ExecutePlanCache getInstance() {
+        if (null == instance) {
+            synchronized (lock) {
+                if (null == instance) {
+                    instance = new ExecutePlanCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public ExtensionExecutePlan getExecutePlan(ExecutePlanCacheKey key) {
+        ExtensionExecutePlan plan = EXECUTE_PLAN_CACHE.get(key);
+        if (null == plan || plan.isStale()) {
+            return null;
+        }
+        return plan;
+    }
+
+    public void doCacheExecutePlan(ExecutePlanCacheKey key, ExtensionExecutePlan plan) {
+        EXECUTE_PLAN_CACHE.put(key, plan);
+    }
+
+    /**
+     * Invalidate the plans compiled for the business, when its config changed.
+     *
+     * @param bizCode the business code.
+     */
+    public void invalidate(String bizCode) {
+        EXECUTE_PLAN_CACHE.invalidateIf(p -> StringUtils.equals(bizCode, p.getBizCode()));
+    }
+
+    @Override
+    public void init() {
+
+    }
+
+    @Override
+    public void clear() {
+        EXECUTE_PLAN_CACHE.clear();
+    }
+
+    @Override
+    public List<LatticeCacheStats> getStats() {
+        return Collections.singletonList(EXECUTE_PLAN_CACHE.getStats());
+    }
+}
@@ -1,15 +1,25 @@
 package org.hiforce.lattice.runtime.cache.config;
 
-import com.google.common.collect.Lists;
-import lombok.Getter;
-import org.apache.commons.lang3.StringUtils;
 import org.hiforce.lattice.model.config.BusinessConfig;
 import org.hiforce.lattice.model.config.ReadonlyBusinessConfig;
 import org.hiforce.lattice.runtime.cache.LatticeCache;
+import org.hiforce.lattice.runtime.cache.ability.AbilityCache;
+import org.hiforce.lattice.runtime.cache.ability.ExecutePlanCache;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
+ * The business configs indexed by bizCode. The loaded configs are frozen into
+ * {@link ReadonlyBusinessConfig} once, and the lookups return the shared frozen instance.
+ * Every change publishes a new index, so the readers are never blocked.
+ *
  * @author Rocky Yu
  * @since 2022/10/12
  */
@@ -17,8 +27,14 @@ public class BusinessConfigCache implements LatticeCache {
 
     private static BusinessConfigCache instance;
 
-    @Getter
-    private final List<BusinessConfig> businessConfigs = Lists.newArrayList();
+    /**
+     * The configs as loaded, only mutated during the registration, guarded by this.
+     */
+    private final Map<String, BusinessConfig> sourceConfigs = new LinkedHashMap<>();
+
+    private volatile Map<String, BusinessConfig> frozenConfigs = Collections.emptyMap();
+
+    private volatile List<BusinessConfig> frozenConfigList = Collections.emptyList();
 
     private BusinessConfigCache() {
 
@@ -37,26 +53,90 @@ public class BusinessConfigCache implements LatticeCache {
     }
 
     @Override
-    public void clear() {
-        businessConfigs.clear();
+    public synchronized void clear() {
+        sourceConfigs.clear();
+        publish(Collections.emptyMap());
+        ExecutePlanCache.getInstance().clear();
     }
 
-    public void addBusinessConfigs(List<BusinessConfig> configs) {
-        businessConfigs.addAll(configs);
+    /**
+     * @return the frozen business configs, sorted by the priority.
+     */
+    public List<BusinessConfig> getBusinessConfigs() {
+        return frozenConfigList;
     }
 
-    public void removeBusinessConfig(String bizCode) {
-        businessConfigs.removeIf(p ->
-                !p.isAutoBuild() && StringUtils.equals(bizCode, p.getBizCode()));
+    public synchronized void addBusinessConfigs(List<BusinessConfig> configs) {
+        Map<String, BusinessConfig> frozen = new HashMap<>(frozenConfigs);
+        for (BusinessConfig config : configs) {
+            // 同一个bizCode以先加载的为准
+            if (null == sourceConfigs.putIfAbsent(config.getBizCode(), config)) {
+                frozen.put(config.getBizCode(), ReadonlyBusinessConfig.of(config));
+            }
+        }
+        publish(frozen);
+        configs.forEach(p -> onBusinessConfigChanged(p.getBizCode()));
     }
 
-    public BusinessConfig getBusinessConfigByBizCode(String bizCode) {
-        BusinessConfig config = businessConfigs.stream().filter(p -> StringUtils.equals(bizCode, p.getBizCode()))
-                .findFirst().orElse(null);
-        if (null == config) {
-            return null;
+    /**
+     * Add the business config, the existed config with same bizCode will be replaced.
+     *
+     * @param config the business config.
+     */
+    public synchronized void addBusinessConfig(BusinessConfig config) {
+        sourceConfigs.put(config.getBizCode(), config);
+        Map<String, BusinessConfig> frozen = new HashMap<>(frozenConfigs);
+        frozen.put(config.getBizCode(), ReadonlyBusinessConfig.of(config));
+        publish(frozen);
+        onBusinessConfigChanged(config.getBizCode());
+    }
+
+    public synchronized void removeBusinessConfig(String bizCode) {
+        BusinessConfig config = sourceConfigs.get(bizCode);
+        if (null != config && !config.isAutoBuild()) {
+            sourceConfigs.remove(bizCode);
+            Map<String, BusinessConfig> frozen = new HashMap<>(frozenConfigs);
+            frozen.remove(bizCode);
+            publish(frozen);
+        }
+        onBusinessConfigChanged(bizCode);
+    }
+
+    /**
+     * Update all the loaded configs during the registration, then freeze them again.
+     *
+     * @param updater the updater of the config.
+     */
+    public synchronized void updateBusinessConfigs(Consumer<BusinessConfig> updater) {
+        Map<String, BusinessConfig> frozen = new HashMap<>(sourceConfigs.size() * 2);
+        for (BusinessConfig config : sourceConfigs.values()) {
+            if (config instanceof ReadonlyBusinessConfig) {
+                frozen.put(config.getBizCode(), config);
+                continue;
+            }
+            updater.accept(config);
+            frozen.put(config.getBizCode(), ReadonlyBusinessConfig.of(config));
         }
-        return new ReadonlyBusinessConfig(config.getBizCode(), config.getPriority(),
-                config.getProducts(), config.getExtensions());
+        publish(frozen);
+        sourceConfigs.keySet().forEach(this::onBusinessConfigChanged);
+    }
+
+    private void publish(Map<String, BusinessConfig> frozen) {
+        List<BusinessConfig> list = new ArrayList<>(frozen.values());
+        list.sort(Comparator.comparingInt(BusinessConfig::getPriority));
+        this.frozenConfigs = Collections.unmodifiableMap(frozen);
+        this.frozenConfigList = Collections.unmodifiableList(list);
+    }
+
+    private void onBusinessConfigChanged(String bizCode) {
+        ExecutePlanCache.getInstance().invalidate(bizCode);
+        AbilityCache.getInstance().clearExtensionRunners();
+    }
+
+    /**
+     * @return the shared frozen config of the business, without copying.
+     */
+    public BusinessConfig getBusinessConfigByBizCode(String bizCode) {
+        return null == bizCode ? null : frozenConfigs.get(bizCode);
     }
 }
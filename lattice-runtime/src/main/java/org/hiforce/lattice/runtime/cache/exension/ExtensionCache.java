@@ -7,6 +7,7 @@ import org.hiforce.lattice.runtime.Lattice;
 import org.hiforce.lattice.runtime.cache.LatticeCache;
 import org.hiforce.lattice.runtime.cache.index.ExtensionIndex;
 
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,6 +23,8 @@ public class ExtensionCache implements LatticeCache {
 
     private final Map<String, ExtensionSpec> extensionSpecCache = Maps.newConcurrentMap();
 
+    private final Map<Method, ExtensionSpec> extensionMethodCache = Maps.newConcurrentMap();
+
     @Getter
     private final ExtensionIndex extensionIndex = new ExtensionIndex();
 
@@ -38,13 +41,22 @@ public class ExtensionCache implements LatticeCache {
     }
 
     public void doCacheExtensionSpec(Set<ExtensionSpec> extensionSet) {
-        extensionSet.forEach(p -> extensionSpecCache.put(p.getCode(), p));
+        extensionSet.forEach(p -> {
+            extensionSpecCache.put(p.getCode(), p);
+            if (null != p.getInvokeMethod()) {
+                extensionMethodCache.put(p.getInvokeMethod(), p);
+            }
+        });
     }
 
     public ExtensionSpec getExtensionSpecByCode(String extCode) {
         return extensionSpecCache.get(extCode);
     }
 
+    public ExtensionSpec getExtensionSpecByMethod(Method method) {
+        return extensionMethodCache.get(method);
+    }
+
     @Override
     public void init() {
         // 将所有已注册能力的能力实例中的扩展点拿出来
@@ -58,5 +70,6 @@ public class ExtensionCache implements LatticeCache {
     public void clear() {
         extensionIndex.clear();
         extensionSpecCache.clear();
+        extensionMethodCache.clear();
     }
 }
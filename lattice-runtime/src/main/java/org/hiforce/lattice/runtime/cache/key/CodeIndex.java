@@ -0,0 +1,66 @@
+package org.hiforce.lattice.runtime.cache.key;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The interned index of the codes (extension, business, template, scenario) used by the
+ * composite cache keys. An index is assigned once per distinct code and never reused,
+ * even after the index is cleared, so two keys with the same indexes always have the same codes.
+ * At most {@link #MAX_CODES} codes are interned, the keys of the other codes fall back to
+ * structural equality.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public final class CodeIndex {
+
+    static final int NULL_INDEX = 0;
+
+    /**
+     * The index is out of the packed bit width, the key should fall back to structural equality.
+     */
+    static final int OVERFLOW = -1;
+
+    static final int INDEX_BITS = 24;
+
+    static final int MAX_INDEX = (1 << INDEX_BITS) - 1;
+
+    /**
+     * The max number of interned codes, the scenarios e.g. may come from the callers.
+     */
+    static final int MAX_CODES = 1 << 16;
+
+    private static final Map<String, Integer> INDEX = new ConcurrentHashMap<>(256);
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private CodeIndex() {
+    }
+
+    static int indexOf(String code) {
+        if (null == code) {
+            return NULL_INDEX;
+        }
+        Integer index = INDEX.get(code);
+        if (null != index) {
+            return index;
+        }
+        if (INDEX.size() >= MAX_CODES) {
+            return OVERFLOW;
+        }
+        return INDEX.computeIfAbsent(code, k -> {
+            int next = SEQUENCE.incrementAndGet();
+            return next > MAX_INDEX ? OVERFLOW : next;
+        });
+    }
+
+    /**
+     * Release the interned codes, along with the runtime caches holding the keys.
+     * The sequence is not reset, the keys built before never match the keys built after.
+     */
+    public static void clearCache() {
+        INDEX.clear();
+    }
+}
@@ -0,0 +1,100 @@
+package org.hiforce.lattice.runtime.cache.key;
+
+import com.google.common.collect.ImmutableSet;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.hiforce.lattice.exception.LatticeRuntimeException;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ExecutePlanCacheKey {
+
+    @Getter
+    @Nonnull
+    private final Class<?> abilityClass;
+
+    @Getter
+    @Nonnull
+    private final String bizCode;
+
+    @Getter
+    @Nonnull
+    private final String extensionCode;
+
+    @Getter
+    private final String scenario;
+
+    @Getter
+    private final boolean loadBusinessExt;
+
+    /**
+     * The copy of the allowed product codes, the key hashes it only once.
+     */
+    @Getter
+    private final Set<String> allowedProducts;
+
+    @Getter
+    private final boolean supportCustomization;
+
+    @Getter
+    private final boolean hasDefaultExtension;
+
+    private final int hashCode;
+
+    public ExecutePlanCacheKey(@Nonnull Class<?> abilityClass, @Nonnull String bizCode,
+                               @Nonnull String extensionCode, String scenario,
+                               boolean loadBusinessExt, Set<String> allowedProducts,
+                               boolean supportCustomization, boolean hasDefaultExtension) {
+        if (StringUtils.isEmpty(bizCode)) {
+            throw new LatticeRuntimeException("LATTICE-CORE-RT-0008");
+        }
+        if (StringUtils.isEmpty(extensionCode)) {
+            throw new LatticeRuntimeException("LATTICE-CORE-RT-0007");
+        }
+        this.abilityClass = abilityClass;
+        this.bizCode = bizCode;
+        this.extensionCode = extensionCode;
+        this.scenario = scenario;
+        this.loadBusinessExt = loadBusinessExt;
+        this.allowedProducts = null == allowedProducts ? null : ImmutableSet.copyOf(allowedProducts);
+        this.supportCustomization = supportCustomization;
+        this.hasDefaultExtension = hasDefaultExtension;
+
+        int result = abilityClass.hashCode();
+        result = 31 * result + bizCode.hashCode();
+        result = 31 * result + extensionCode.hashCode();
+        result = 31 * result + (scenario != null ? scenario.hashCode() : 0);
+        result = 31 * result + (loadBusinessExt ? 1 : 0);
+        result = 31 * result + (this.allowedProducts != null ? this.allowedProducts.hashCode() : 0);
+        result = 31 * result + (supportCustomization ? 1 : 0);
+        result = 31 * result + (hasDefaultExtension ? 1 : 0);
+        this.hashCode = result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ExecutePlanCacheKey)) return false;
+        ExecutePlanCacheKey that = (ExecutePlanCacheKey) o;
+        if (hashCode != that.hashCode) return false;
+        if (loadBusinessExt != that.loadBusinessExt) return false;
+        if (supportCustomization != that.supportCustomization) return false;
+        if (hasDefaultExtension != that.hasDefaultExtension) return false;
+        if (abilityClass != that.abilityClass) return false;
+        if (!bizCode.equals(that.bizCode)) return false;
+        if (!extensionCode.equals(that.extensionCode)) return false;
+        if (!Objects.equals(scenario, that.scenario)) return false;
+        return Objects.equals(allowedProducts, that.allowedProducts);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -26,8 +26,7 @@ public class ExtensionInvokeCacheKey extends BaseObjectCacheKey {
         this.scenario = scenario;
         this.templateCode = template.getCode();
         this.extensionCode = extCode;
-        this.setTemplateIndex(template.getInternalId());
-        buildObjectCacheUniqueId();
+        buildCompositeKey();
     }
 
     @Override
@@ -74,9 +73,4 @@ public class ExtensionInvokeCacheKey extends BaseObjectCacheKey {
     public boolean isOnlyProduct() {
         return false;
     }
-
-    @Override
-    public boolean validateIndex() {
-        return null != getTemplateCode() && null != getExtensionCode();
-    }
 }
@@ -35,7 +35,7 @@ public class ExtensionRunnerCacheKey extends BaseObjectCacheKey {
         this.scenario = scenario;
         this.supportCustomization = supportCustomization;
         this.onlyProduct = onlyProduct;
-        buildObjectCacheUniqueId();
+        buildCompositeKey();
     }
 
     private int hashCode;
@@ -71,12 +71,4 @@ public class ExtensionRunnerCacheKey extends BaseObjectCacheKey {
     public String getTemplateCode() {
         return null;
     }
-
-    @Override
-    public boolean validateIndex() {
-        if (null == getBizCodeIndex() || null == getExtCodeIndex() || null == getScenarioIndex()) {
-            return false;
-        }
-        return true;
-    }
 }
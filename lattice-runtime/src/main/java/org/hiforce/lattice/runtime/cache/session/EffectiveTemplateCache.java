@@ -0,0 +1,130 @@
+package org.hiforce.lattice.runtime.cache.session;
+
+import org.hiforce.lattice.model.business.ITemplate;
+import org.hiforce.lattice.model.config.BusinessConfig;
+import org.hiforce.lattice.model.register.TemplateSpec;
+import org.hiforce.lattice.runtime.ability.register.RegisterSnapshot;
+import org.hiforce.lattice.runtime.ability.register.TemplateRegister;
+import org.hiforce.lattice.runtime.cache.BoundedCache;
+import org.hiforce.lattice.runtime.cache.LatticeCache;
+import org.hiforce.lattice.runtime.cache.LatticeCacheStats;
+import org.hiforce.lattice.runtime.cache.config.BusinessConfigCache;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The sorted effective templates, for the scenario requests with an effectiveness key.
+ * An entry is bound to the register snapshot and the business config it evaluated with,
+ * and is discarded once either of them changed.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class EffectiveTemplateCache implements LatticeCache {
+
+    private static EffectiveTemplateCache instance;
+
+    private static final Object lock = new Object();
+
+    private final BoundedCache<EffectiveKey, EffectiveEntry> EFFECTIVE_TEMPLATE_CACHE =
+            BoundedCache.of("effectiveTemplates", 10000);
+
+    private EffectiveTemplateCache() {
+
+    }
+
+    public static EffectiveTemplateCache getInstance() {
+        if (null == instance) {
+            synchronized (lock) {
+                if (null == instance) {
+                    instance = new EffectiveTemplateCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param bizCode          the business code of the request.
+     * @param effectivenessKey the effectiveness key of the request.
+     * @param loader           evaluates the sorted effective templates.
+     * @return the unmodifiable effective templates.
+     */
+    public List<TemplateSpec<? extends ITemplate>> getEffectiveTemplates(
+            String bizCode, Object effectivenessKey, Supplier<List<TemplateSpec<? extends ITemplate>>> loader) {
+        EffectiveKey key = new EffectiveKey(bizCode, effectivenessKey);
+        RegisterSnapshot snapshot = TemplateRegister.getInstance().getSnapshot();
+        BusinessConfig config = BusinessConfigCache.getInstance().getBusinessConfigByBizCode(bizCode);
+
+        EffectiveEntry entry = EFFECTIVE_TEMPLATE_CACHE.get(key);
+        if (null != entry && entry.snapshot == snapshot && entry.config == config) {
+            return entry.templates;
+        }
+        entry = new EffectiveEntry(snapshot, config, Collections.unmodifiableList(loader.get()));
+        EFFECTIVE_TEMPLATE_CACHE.put(key, entry);
+        return entry.templates;
+    }
+
+    @Override
+    public void init() {
+
+    }
+
+    @Override
+    public void clear() {
+        EFFECTIVE_TEMPLATE_CACHE.clear();
+    }
+
+    @Override
+    public List<LatticeCacheStats> getStats() {
+        return Collections.singletonList(EFFECTIVE_TEMPLATE_CACHE.getStats());
+    }
+
+    private static final class EffectiveKey {
+
+        private final String bizCode;
+
+        private final Object effectivenessKey;
+
+        private final int hash;
+
+        private EffectiveKey(String bizCode, Object effectivenessKey) {
+            this.bizCode = bizCode;
+            this.effectivenessKey = effectivenessKey;
+            this.hash = Objects.hash(bizCode, effectivenessKey);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof EffectiveKey)) return false;
+            EffectiveKey that = (EffectiveKey) o;
+            return Objects.equals(bizCode, that.bizCode)
+                    && Objects.equals(effectivenessKey, that.effectivenessKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class EffectiveEntry {
+
+        private final RegisterSnapshot snapshot;
+
+        private final BusinessConfig config;
+
+        private final List<TemplateSpec<? extends ITemplate>> templates;
+
+        private EffectiveEntry(RegisterSnapshot snapshot, BusinessConfig config,
+                               List<TemplateSpec<? extends ITemplate>> templates) {
+            this.snapshot = snapshot;
+            this.config = config;
+            this.templates = templates;
+        }
+    }
+}
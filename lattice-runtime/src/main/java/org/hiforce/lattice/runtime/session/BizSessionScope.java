@@ -13,12 +13,14 @@ import org.hiforce.lattice.model.config.ProductConfig;
 import org.hiforce.lattice.model.context.BizSessionContext;
 import org.hiforce.lattice.model.register.ProductSpec;
 import org.hiforce.lattice.model.register.TemplateSpec;
-import org.hiforce.lattice.model.register.UseCaseSpec;
 import org.hiforce.lattice.model.scenario.ScenarioRequest;
 import org.hiforce.lattice.runtime.Lattice;
+import org.hiforce.lattice.runtime.ability.execute.ExtensionParallelExecutor;
 
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -30,6 +32,13 @@ import java.util.stream.Collectors;
 public abstract class BizSessionScope<Resp, BizObject extends IBizObject>
         extends Scope<Resp> {
 
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "lattice.session.parallel.threshold";
+
+    /**
+     * The minimum requests of a business to evaluate the effective templates in parallel.
+     */
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, 512);
+
     @Getter
     private final List<BizObject> bizObjects = Lists.newArrayList();
 
@@ -82,36 +91,31 @@ public abstract class BizSessionScope<Resp, BizObject extends IBizObject>
 
     }
 
-    @SuppressWarnings("all")
+    /**
+     * The requests are grouped by business code, the candidate templates of each group are
+     * resolved once. A large group is evaluated in parallel when all of its candidate
+     * templates are stateless.
+     */
     private void buildEffectProducts() {
-        for (ScenarioRequest request : scenarioRequests) {
-            List<TemplateSpec<? extends ITemplate>> templates = Lists.newArrayList();
-
-            templates.addAll(loadEffectiveUseCases(request));
-            templates.addAll(loadBusinessInstalledProducts(request.getBizObject().getBizCode())
-                    .stream().filter(p -> isTemplateEffective(p, request))
-                    .collect(Collectors.toList()));
-            templates.sort(Comparator.comparingInt(TemplateSpec::getPriority));
-            context.getEffectiveTemplates().put(request.getBizObject().getBizContext().toString(), templates);
+        Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> effective =
+                new IdentityHashMap<>(scenarioRequests.size() * 2);
+        for (EffectiveTemplateGroup group : EffectiveTemplateGroup.group(scenarioRequests, this::loadCandidateTemplates)) {
+            boolean parallel = group.getRequests().size() >= PARALLEL_THRESHOLD && group.isStateless()
+                    && ExtensionParallelExecutor.getInstance().isFanOutAllowed();
+            group.evaluate(effective, parallel);
         }
+        context.putEffectiveTemplates(effective);
     }
 
-    private List<UseCaseSpec> loadEffectiveUseCases(ScenarioRequest request) {
-        return Lattice.getInstance().getAllRegisteredUseCases().stream()
-                .filter(p -> isTemplateEffective(p, request))
-                .collect(Collectors.toList());
-    }
-
-    @SuppressWarnings("all")
-    private boolean isTemplateEffective(TemplateSpec templateSpec, ScenarioRequest request) {
-        if (null == templateSpec) {
-            return false;
-        }
-        ITemplate template = templateSpec.newInstance();
-        if (null == template) {
-            return false;
-        }
-        return template.isEffect(request);
+    /**
+     * @return the registered use cases and the products installed by the business, sorted by priority.
+     */
+    private List<TemplateSpec<? extends ITemplate>> loadCandidateTemplates(String bizCode) {
+        List<TemplateSpec<? extends ITemplate>> templates = Lists.newArrayList();
+        templates.addAll(Lattice.getInstance().getAllRegisteredUseCases());
+        templates.addAll(loadBusinessInstalledProducts(bizCode));
+        templates.sort(Comparator.comparingInt(TemplateSpec::getPriority));
+        return templates;
     }
 
     private List<ProductSpec> loadBusinessInstalledProducts(String bizCode) {
@@ -0,0 +1,205 @@
+package org.hiforce.lattice.runtime.session;
+
+import org.hiforce.lattice.exception.LatticeRuntimeException;
+import org.hiforce.lattice.model.business.IBizObject;
+import org.hiforce.lattice.model.business.ITemplate;
+import org.hiforce.lattice.model.context.ContextSnapshot;
+import org.hiforce.lattice.model.register.TemplateSpec;
+import org.hiforce.lattice.model.scenario.ScenarioRequest;
+import org.hiforce.lattice.runtime.ability.execute.ExtensionParallelExecutor;
+import org.hiforce.lattice.runtime.cache.session.EffectiveTemplateCache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Function;
+
+/**
+ * The scenario requests of the same business in a session. The candidate templates are
+ * resolved and sorted once for the group, every request is then evaluated against them.
+ * The requests with the same effective templates share one unmodifiable list.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+class EffectiveTemplateGroup {
+
+    private static final int PARALLEL_CHUNK_SIZE = 128;
+
+    private final String bizCode;
+
+    private final List<TemplateSpec<? extends ITemplate>> candidates;
+
+    /**
+     * The shared instances of the stateless candidates, null for the others.
+     */
+    private final ITemplate[] templates;
+
+    private final boolean stateless;
+
+    private final List<ScenarioRequest> requests = new ArrayList<>();
+
+    private final Map<BitSet, List<TemplateSpec<? extends ITemplate>>> shared = new ConcurrentHashMap<>();
+
+    /**
+     * @param bizCode    the business code of the group.
+     * @param candidates the candidate templates sorted by priority.
+     */
+    EffectiveTemplateGroup(String bizCode, List<TemplateSpec<? extends ITemplate>> candidates) {
+        this.bizCode = bizCode;
+        this.candidates = candidates;
+        this.templates = new ITemplate[candidates.size()];
+        boolean allStateless = true;
+        for (int i = 0; i < templates.length; i++) {
+            TemplateSpec<? extends ITemplate> spec = candidates.get(i);
+            ITemplate template = null == spec ? null : spec.getTemplateInstance();
+            templates[i] = null != template && template.isStateless() ? template : null;
+            allStateless &= null == spec || null != templates[i];
+        }
+        this.stateless = allStateless;
+    }
+
+    /**
+     * Group the requests by business code, in the order of the first request of each business.
+     *
+     * @param candidateLoader loads the candidate templates sorted by priority of a business.
+     */
+    static Collection<EffectiveTemplateGroup> group(
+            List<ScenarioRequest> requests,
+            Function<String, List<TemplateSpec<? extends ITemplate>>> candidateLoader) {
+        Map<String, EffectiveTemplateGroup> groups = new LinkedHashMap<>();
+        for (ScenarioRequest request : requests) {
+            String bizCode = request.getBizObject().getBizCode();
+            EffectiveTemplateGroup group = groups.get(bizCode);
+            if (null == group) {
+                group = new EffectiveTemplateGroup(bizCode, candidateLoader.apply(bizCode));
+                groups.put(bizCode, group);
+            }
+            group.addRequest(request);
+        }
+        return groups.values();
+    }
+
+    String getBizCode() {
+        return bizCode;
+    }
+
+    List<ScenarioRequest> getRequests() {
+        return requests;
+    }
+
+    void addRequest(ScenarioRequest request) {
+        requests.add(request);
+    }
+
+    /**
+     * @return whether all the candidate templates can be evaluated concurrently.
+     */
+    boolean isStateless() {
+        return stateless;
+    }
+
+    /**
+     * Evaluate the effective templates of all the requests into the map.
+     *
+     * @param parallel whether evaluate the requests in chunks on the parallel executor,
+     *                 only allowed when the group is stateless.
+     */
+    void evaluate(Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> effective, boolean parallel) {
+        if (!parallel) {
+            for (ScenarioRequest request : requests) {
+                effective.put(request.getBizObject(), getEffectiveTemplates(request));
+            }
+            return;
+        }
+        evaluateInParallel(effective);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evaluateInParallel(Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> effective) {
+        List<TemplateSpec<? extends ITemplate>>[] results = new List[requests.size()];
+        List<FutureTask<Void>> futures = new ArrayList<>();
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        for (int from = 0; from < requests.size(); from += PARALLEL_CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(from + PARALLEL_CHUNK_SIZE, requests.size());
+            futures.add(ExtensionParallelExecutor.getInstance().submit(() -> snapshot.call(() -> {
+                for (int i = start; i < end; i++) {
+                    results[i] = getEffectiveTemplates(requests.get(i));
+                }
+                return null;
+            })));
+        }
+        try {
+            for (FutureTask<Void> future : futures) {
+                awaitResult(future);
+            }
+        } finally {
+            for (FutureTask<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            effective.put(requests.get(i).getBizObject(), results[i]);
+        }
+    }
+
+    private static void awaitResult(FutureTask<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new LatticeRuntimeException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new LatticeRuntimeException(cause);
+        }
+    }
+
+    List<TemplateSpec<? extends ITemplate>> getEffectiveTemplates(ScenarioRequest request) {
+        Object effectivenessKey = request.getEffectivenessKey();
+        if (null == effectivenessKey) {
+            return evaluate(request);
+        }
+        return EffectiveTemplateCache.getInstance()
+                .getEffectiveTemplates(bizCode, effectivenessKey, () -> evaluate(request));
+    }
+
+    private List<TemplateSpec<? extends ITemplate>> evaluate(ScenarioRequest request) {
+        BitSet effective = new BitSet(templates.length);
+        for (int i = 0; i < templates.length; i++) {
+            ITemplate template = templates[i];
+            if (null == template) {
+                TemplateSpec<? extends ITemplate> spec = candidates.get(i);
+                template = null == spec ? null : spec.newInstance();
+            }
+            if (null != template && template.isEffect(request)) {
+                effective.set(i);
+            }
+        }
+        List<TemplateSpec<? extends ITemplate>> list = shared.get(effective);
+        if (null != list) {
+            return list;
+        }
+        list = new ArrayList<>(effective.cardinality());
+        for (int i = effective.nextSetBit(0); i >= 0; i = effective.nextSetBit(i + 1)) {
+            list.add(candidates.get(i));
+        }
+        list = Collections.unmodifiableList(list);
+        List<TemplateSpec<? extends ITemplate>> existing = shared.putIfAbsent(effective, list);
+        return null == existing ? list : existing;
+    }
+}
@@ -1,6 +1,8 @@
 package org.hiforce.lattice.runtime.session;
 
 import org.hiforce.lattice.exception.LatticeRuntimeException;
+import org.hiforce.lattice.model.context.ContextCarriers;
+import org.hiforce.lattice.model.context.ContextFrame;
 
 /**
  * @author Rocky Yu
@@ -26,6 +28,24 @@ public abstract class Scope<Resp> {
      * @return Resp
      */
     public Resp invoke() throws LatticeRuntimeException {
+        if (null == ContextCarriers.frame(false)) {
+            // 当前执行没有上下文帧时，为本次调用创建一个，调用结束后即释放
+            return ContextCarriers.callWith(new ContextFrame(), this::doInvoke);
+        }
+        return doInvoke();
+    }
+
+    /**
+     * Invoke with an explicit context frame, the frame can be shared with the child tasks.
+     *
+     * @param frame the context frame of the invocation.
+     * @return Resp
+     */
+    public Resp invoke(ContextFrame frame) throws LatticeRuntimeException {
+        return ContextCarriers.callWith(frame, this::doInvoke);
+    }
+
+    private Resp doInvoke() {
         Entrance entrance = getEntrance();
         try {
             entrance.get().increaseCount();
@@ -55,15 +75,13 @@ public abstract class Scope<Resp> {
         Entrance get();
     }
 
-    private static class EntranceImpl extends ThreadLocal<EntranceImpl> implements Entrance {
+    /**
+     * The entrance counter kept in the context frame of current execution.
+     */
+    private static class EntranceImpl implements Entrance {
 
         private int count = 0;
 
-        @Override
-        protected EntranceImpl initialValue() {
-            return new EntranceImpl();
-        }
-
         @Override
         public int getCount() {
             return count;
@@ -76,12 +94,24 @@ public abstract class Scope<Resp> {
 
         @Override
         public void clearCount() {
-            remove();
+            ContextFrame frame = ContextCarriers.frame(false);
+            if (null != frame) {
+                frame.removeEntrance(this);
+            }
         }
 
         @Override
         public void decreaseCount() {
             count--;
         }
+
+        @Override
+        public Entrance get() {
+            ContextFrame frame = ContextCarriers.frame(true);
+            if (null == frame) {
+                return this;
+            }
+            return (Entrance) frame.getEntrance(this, k -> new EntranceImpl());
+        }
     }
 }
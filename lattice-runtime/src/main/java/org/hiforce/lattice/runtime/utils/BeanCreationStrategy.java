@@ -0,0 +1,217 @@
+package org.hiforce.lattice.runtime.utils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationContext;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+/**
+ * The instantiation strategy of a bean class, resolved once per class and Spring application context.
+ * The resolution follows the order of {@link LatticeBeanUtils#getAndCreateSpringBeanViaClass(Class, Object...)}:
+ * the Spring bean, the bean created by Spring, and the bean constructed with the matched constructor.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@Slf4j
+abstract class BeanCreationStrategy {
+
+    private static final MethodType NO_ARG_TYPE = MethodType.methodType(Object.class);
+
+    @Getter
+    private final Class<?> beanClass;
+
+    @Getter
+    private final ApplicationContext context;
+
+    BeanCreationStrategy(Class<?> beanClass, ApplicationContext context) {
+        this.beanClass = beanClass;
+        this.context = context;
+    }
+
+    abstract Object create(Object... values);
+
+    static BeanCreationStrategy resolve(Class<?> beanClass, ApplicationContext context) {
+        String beanName = null == context ? null : findSpringBeanName(beanClass, context);
+        if (null != beanName) {
+            return new SpringBeanStrategy(beanClass, context, beanName);
+        }
+        Constructor<?> noArgConstructor = findNoArgConstructor(beanClass);
+        if (null != context && null != noArgConstructor) {
+            return new SpringCreateStrategy(beanClass, context);
+        }
+        return new ConstructorStrategy(beanClass, context, noArgConstructor);
+    }
+
+    private static String findSpringBeanName(Class<?> beanClass, ApplicationContext context) {
+        SpringAnnotationResult result = LatticeBeanUtils.getSpringAnnotationResult(beanClass);
+        if (result.isHasAnnotation()) {
+            if (StringUtils.isNotEmpty(result.getValue())) {
+                if (context.containsBean(result.getValue())) {
+                    return result.getValue();
+                }
+            } else {
+                String[] names = context.getBeanNamesForType(beanClass);
+                if (names.length == 1) {
+                    return names[0];
+                }
+            }
+        }
+        String beanName = StringUtils.uncapitalize(beanClass.getSimpleName());
+        return context.containsBean(beanName) ? beanName : null;
+    }
+
+    private static Constructor<?> findNoArgConstructor(Class<?> beanClass) {
+        if (Modifier.isAbstract(beanClass.getModifiers()) || beanClass.isInterface()) {
+            return null;
+        }
+        for (Constructor<?> constructor : beanClass.getConstructors()) {
+            if (constructor.getParameterCount() == 0) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    private static MethodHandle unreflect(Constructor<?> constructor) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(constructor);
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        } catch (IllegalAccessException e) {
+            log.debug("[Lattice]The constructor of {} is not accessible via the public lookup",
+                    constructor.getDeclaringClass().getName());
+            return null;
+        }
+    }
+
+    /**
+     * The bean registered in the Spring context, the singleton is looked up only once.
+     */
+    private static class SpringBeanStrategy extends BeanCreationStrategy {
+
+        private final String beanName;
+
+        private final boolean singleton;
+
+        private volatile Object instance;
+
+        SpringBeanStrategy(Class<?> beanClass, ApplicationContext context, String beanName) {
+            super(beanClass, context);
+            this.beanName = beanName;
+            this.singleton = context.isSingleton(beanName);
+        }
+
+        @Override
+        Object create(Object... values) {
+            if (!singleton) {
+                return getContext().getBean(beanName);
+            }
+            Object bean = instance;
+            if (null == bean) {
+                bean = getContext().getBean(beanName);
+                instance = bean;
+            }
+            return bean;
+        }
+    }
+
+    /**
+     * The prototype bean created and autowired by the Spring context on each call.
+     */
+    private static class SpringCreateStrategy extends BeanCreationStrategy {
+
+        SpringCreateStrategy(Class<?> beanClass, ApplicationContext context) {
+            super(beanClass, context);
+        }
+
+        @Override
+        Object create(Object... values) {
+            try {
+                return getContext().getAutowireCapableBeanFactory().createBean(getBeanClass());
+            } catch (Throwable th) {
+                log.warn("[Lattice]Failed to create spring bean instance", th);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The bean constructed via the constructor handles, the constructor is matched with the values.
+     * The constructors not accessible via the public lookup, e.g. the public constructors of a
+     * non-public class, are invoked reflectively instead.
+     */
+    private static class ConstructorStrategy extends BeanCreationStrategy {
+
+        private final Constructor<?> noArgConstructor;
+
+        private final MethodHandle noArgHandle;
+
+        private final Constructor<?>[] constructors;
+
+        private final MethodHandle[] handles;
+
+        ConstructorStrategy(Class<?> beanClass, ApplicationContext context, Constructor<?> noArgConstructor) {
+            super(beanClass, context);
+            this.noArgConstructor = noArgConstructor;
+            MethodHandle noArgHandle = null == noArgConstructor ? null : unreflect(noArgConstructor);
+            this.noArgHandle = null == noArgHandle ? null : noArgHandle.asType(NO_ARG_TYPE);
+            this.constructors = beanClass.getConstructors();
+            this.handles = new MethodHandle[constructors.length];
+            for (int i = 0; i < constructors.length; i++) {
+                MethodHandle handle = unreflect(constructors[i]);
+                handles[i] = null == handle ? null
+                        : handle.asSpreader(Object[].class, constructors[i].getParameterCount());
+            }
+        }
+
+        @Override
+        Object create(Object... values) {
+            try {
+                if (null != noArgConstructor) {
+                    return null == noArgHandle ? noArgConstructor.newInstance() : noArgHandle.invoke();
+                }
+                if (null == values || 0 == values.length) {
+                    //values maybe is null, but bean has constructor with args.
+                    return constructors.length == 0 ? null
+                            : construct(0, new Object[constructors[0].getParameterCount()]);
+                }
+                for (int i = 0; i < constructors.length; i++) {
+                    if (isConstructorMatched(constructors[i], values)) {
+                        return construct(i, values);
+                    }
+                }
+                return null;
+            } catch (Throwable e) {
+                log.warn("[Lattice]Failed to create spring bean instance", e);
+                return null;
+            }
+        }
+
+        private Object construct(int index, Object[] args) throws Throwable {
+            if (null == handles[index]) {
+                return constructors[index].newInstance(args);
+            }
+            return handles[index].invoke(args);
+        }
+
+        private static boolean isConstructorMatched(Constructor<?> constructor, Object... values) {
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            if (parameterTypes.length != values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (null != values[i] && !ClassUtils.isAssignable(values[i].getClass(), parameterTypes[i], true)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -18,6 +18,8 @@ public abstract class ClassLoaderUtil {
 
     public static Set<Class<?>> scanLatticeClasses(String... classPackages) {
         ClassPathScanHandler handler = new ClassPathScanHandler();
+        // 编译期注册索引中的非模型类不再加载，未被索引的类仍然加载
+        handler.setUseRegistrationIndex(true);
         TreeSet<Class<?>> classSet = new TreeSet<>(new ClassNameComparator());
 
         for (String classPackage : classPackages) {
@@ -16,6 +16,7 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.util.*;
 import java.util.jar.JarEntry;
+import java.util.function.Predicate;
 import java.util.jar.JarFile;
 import java.util.regex.Pattern;
 
@@ -54,6 +55,12 @@ public class ClassPathScanHandler {
     @Getter
     @Setter
     private Reflections reflections = null;
+    /**
+     * 是否使用编译期的注册索引，索引中的非模型类不再加载.
+     */
+    @Getter
+    @Setter
+    private boolean useRegistrationIndex = false;
 
     private static final Map<ClassLoader, Map<String, Set<Class<?>>>> cachedClassloaderClassSetMap = new HashMap<ClassLoader, Map<String, Set<Class<?>>>>();
 
@@ -67,7 +74,7 @@ public class ClassPathScanHandler {
     public synchronized Set<Class<?>> getPackageAllClasses(final String basePackage, final boolean recursive) {
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         Set<Class<?>> cachedClassSet = null;
-        String cacheKey = basePackage + "," + recursive;
+        String cacheKey = basePackage + "," + recursive + "," + useRegistrationIndex;
 
         Map<String, Set<Class<?>>> cachedClassSetMap = cachedClassloaderClassSetMap.get(classLoader);
         if (cachedClassSetMap == null) {
@@ -76,7 +83,7 @@ public class ClassPathScanHandler {
         cachedClassSet = cachedClassSetMap.get(cacheKey);
 
         if (cachedClassSet == null) {
-            cachedClassSet = innerGetPackageAllClasses(basePackage, recursive);
+            cachedClassSet = innerGetPackageAllClasses(basePackage, recursive, classLoader);
             if (cachedClassSet == null) {
                 cachedClassSet = new HashSet<Class<?>>();
             }
@@ -93,8 +100,21 @@ public class ClassPathScanHandler {
      * @param recursive   whether to search recursive.
      * @return Set create the found classes.
      */
-    @SuppressWarnings("unchecked")
     public synchronized Set<Class<?>> innerGetPackageAllClasses(String basePackage, boolean recursive) {
+        return innerGetPackageAllClasses(basePackage, recursive, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * scan the package, the package resources and the classes are resolved with the same class loader.
+     *
+     * @param basePackage the basic class package's string.
+     * @param recursive   whether to search recursive.
+     * @param classLoader the class loader to scan with.
+     * @return Set create the found classes.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized Set<Class<?>> innerGetPackageAllClasses(
+            String basePackage, boolean recursive, ClassLoader classLoader) {
         if (StringUtils.isEmpty(basePackage))
             return new HashSet<Class<?>>();
         Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
@@ -106,15 +126,17 @@ public class ClassPathScanHandler {
 
         Enumeration<URL> dirs;
         try {
-            dirs = Thread.currentThread().getContextClassLoader().getResources(package2Path);
+            dirs = classLoader.getResources(package2Path);
             while (dirs.hasMoreElements()) {
                 URL url = dirs.nextElement();
                 String protocol = url.getProtocol();
+                ClassScanContext context = new ClassScanContext(classLoader,
+                        useRegistrationIndex ? RegistrationIndex.getClassFilter(url, package2Path) : null);
                 if ("file".equals(protocol)) {
                     String filePath = URLDecoder.decode(url.getFile(), "UTF-8");
-                    doScanPackageClassesByFile(classes, packageName, filePath, recursive);
+                    doScanPackageClassesByFile(context, classes, packageName, filePath, recursive);
                 } else if ("jar".equals(protocol)) {
-                    doScanPackageClassesByJar(packageName, url, recursive, classes);
+                    doScanPackageClassesByJar(context, packageName, url, recursive, classes);
                 }
             }
         } catch (IOException e) {
@@ -129,12 +151,14 @@ public class ClassPathScanHandler {
     /**
      * 以jar的方式扫描包下的所有Class文件<br>.
      *
+     * @param context     the class loader and the index filter of the jar.
      * @param basePackage eg：michael.utils.
      * @param url         the url.
      * @param recursive   whether to search recursive.
      * @param classes     set create the found classes.
      */
-    private void doScanPackageClassesByJar(String basePackage, URL url, final boolean recursive, Set<Class<?>> classes) {
+    private void doScanPackageClassesByJar(ClassScanContext context, String basePackage, URL url,
+                                           final boolean recursive, Set<Class<?>> classes) {
         String package2Path = basePackage.replace('.', '/');
         JarFile jar;
         try {
@@ -160,8 +184,11 @@ public class ClassPathScanHandler {
                 if (this.filterClassName(classSimpleName)) {
                     String className = name.replace('/', '.');
                     className = className.substring(0, className.length() - 6);
+                    if (!context.isLoadRequired(className)) {
+                        continue;
+                    }
                     try {
-                        classes.add(Thread.currentThread().getContextClassLoader().loadClass(className));
+                        classes.add(context.getClassLoader().loadClass(className));
                     } catch (ClassNotFoundException e) {
                         log.error("LoadClass Exception:URL is ===>" + url.getPath() + " , Class ===> " + className, e);
                     } catch (NoClassDefFoundError error) {
@@ -179,12 +206,13 @@ public class ClassPathScanHandler {
     /**
      * 以文件的方式扫描包下的所有Class文件.
      *
+     * @param context     the class loader and the index filter of the class path root.
      * @param packageName the package name for scanning.
      * @param packagePath the package path for scanning.
      * @param recursive   whether to search recursive.
      * @param classes     set create the found classes.
      */
-    private void doScanPackageClassesByFile(
+    private void doScanPackageClassesByFile(ClassScanContext context,
             Set<Class<?>> classes, String packageName, String packagePath, final boolean recursive) {
         File dir = new File(packagePath);
         if (!dir.exists() || !dir.isDirectory()) {
@@ -202,12 +230,15 @@ public class ClassPathScanHandler {
         }
         for (File file : files) {
             if (file.isDirectory()) {
-                doScanPackageClassesByFile(classes, packageName + "." + file.getName(), file.getAbsolutePath(), recursive);
+                doScanPackageClassesByFile(context, classes, packageName + "." + file.getName(), file.getAbsolutePath(), recursive);
             } else {
                 String className = file.getName().substring(0,
                         file.getName().length() - CLASS_EXTENSION_NAME.length());
+                if (!context.isLoadRequired(packageName + '.' + className)) {
+                    continue;
+                }
                 try {
-                    classes.add(Thread.currentThread().getContextClassLoader().loadClass(packageName + '.' + className));
+                    classes.add(context.getClassLoader().loadClass(packageName + '.' + className));
                 } catch (ClassNotFoundException e) {
                     log.error("LoadClass exception: ===>" + className, e);
                 } catch (NoClassDefFoundError error) {
@@ -274,4 +305,24 @@ public class ClassPathScanHandler {
     public static void clearCache() {
         cachedClassloaderClassSetMap.clear();
     }
+
+    /**
+     * The class loader and the registration index filter of a scanned class path root.
+     */
+    private static class ClassScanContext {
+
+        @Getter
+        private final ClassLoader classLoader;
+
+        private final Predicate<String> indexFilter;
+
+        ClassScanContext(ClassLoader classLoader, Predicate<String> indexFilter) {
+            this.classLoader = classLoader;
+            this.indexFilter = indexFilter;
+        }
+
+        boolean isLoadRequired(String className) {
+            return null == indexFilter || indexFilter.test(className);
+        }
+    }
 }
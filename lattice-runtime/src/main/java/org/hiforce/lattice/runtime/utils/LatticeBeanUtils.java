@@ -2,15 +2,14 @@ package org.hiforce.lattice.runtime.utils;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Repository;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.Nonnull;
-import java.lang.reflect.Constructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.springframework.core.annotation.AnnotationUtils.getAnnotation;
 
@@ -21,6 +20,7 @@ import static org.springframework.core.annotation.AnnotationUtils.getAnnotation;
 @Slf4j
 public class LatticeBeanUtils {
 
+    private static final Map<Class<?>, BeanCreationStrategy> STRATEGY_CACHE = new ConcurrentHashMap<>();
 
     public static void autowireBean(Object object) {
         ApplicationContext context = findApplicationContext(object.getClass().getClassLoader());
@@ -38,132 +38,34 @@ public class LatticeBeanUtils {
     }
 
 
+    /**
+     * Get the Spring bean of the class, or create the bean instance with the values as constructor arguments.
+     * The instantiation strategy is resolved once per class and Spring application context.
+     */
+    @SuppressWarnings("unchecked")
     public static <T> T getAndCreateSpringBeanViaClass(Class<?> beanClass, Object... values) {
         if (null == beanClass) {
             return null;
         }
-        //尝试从Spring注册的Bean中获取
-        try {
-            // 当前类是否加了spring注解
-            SpringAnnotationResult result = getSpringAnnotationResult(beanClass);
-            if (result.isHasAnnotation()) {
-                T t = StringUtils.isEmpty(result.getValue())
-                        ? SpringApplicationContextHolder.getSpringBean(beanClass)   // 通过class获取
-                        : SpringApplicationContextHolder.getSpringBean(result.getValue());  // 通过bean name获取
-                if (null != t) {
-                    return t;
-                }
-            }
-            // 通过className获取，没有就报错
-            T t = SpringApplicationContextHolder
-                    .getSpringBean(StringUtils.uncapitalize(beanClass.getSimpleName()));
-            if (null != t) {
-                return t;
-            }
-            // 创建spring bean
-            return createSpringBeanInstance(beanClass, values);
-        } catch (Throwable th) {
-            // 报错兜底
-            return createSpringBeanInstance(beanClass, values);
-        }
-    }
-
-    @SuppressWarnings("all")
-    private static <T> T createSpringBeanInstance(@Nonnull Class<?> beanClass, Object... values) {
-        try {
-            ApplicationContext context = SpringApplicationContextHolder.getContext();
-            if (context != null) {
-                // spring 容器创建 bean
-                return (T) context.getAutowireCapableBeanFactory().createBean(beanClass);
-            }
-            // java 反射创建实例
-            return (T) beanClass.newInstance();
-        } catch (Throwable e) {
-            // 基于参数个数协商构造函数创建实例
-            return createBeanInstance(beanClass, values);
-        }
-    }
-
-    @SuppressWarnings("all")
-    private static <T> T createBeanInstance(@Nonnull Class<?> beanClass, Object... values) {
-        try {
-            try {
-                if (null == values || 0 == values.length) {
-                    return (T) beanClass.newInstance();
-                }
-            } catch (Exception ex) {
-                //values maybe is null, but bean has constructor with args.
-                Constructor constructor = findFirstConstructor(beanClass);
-                return (T) createBeanInstanceWithNullValues(constructor);
-            }
-
-            Constructor constructor = getMatchedConstructor(beanClass, values);
-            if (null == constructor) {
-                return null;
-            }
-            return (T) constructor.newInstance(values);
-        } catch (Throwable e) {
-            log.warn("[Lattice]Failed to create spring bean instance", e);
-            return null;
-        }
+        return (T) getCreationStrategy(beanClass).create(values);
     }
 
-    private static <T> T createBeanInstanceWithNullValues(Constructor<T> constructor) throws Exception {
-        Class<?>[] paramTypes = constructor.getParameterTypes();
-        Object[] values = new Object[paramTypes.length];
-        return constructor.newInstance(values);
+    public static void clearCache() {
+        STRATEGY_CACHE.clear();
     }
 
-    private static Constructor findFirstConstructor(Class<?> beanClass) {
-        if (beanClass.getConstructors().length == 0) {
-            return null;
-        }
-        return beanClass.getConstructors()[0];
-    }
-
-    private static Constructor<?> getMatchedConstructor(Class<?> beanClass, Object... values) {
-        for (Constructor<?> constructor : beanClass.getConstructors()) {
-            if (!checkConstructMatched(constructor, values)) {
-                continue;
-            }
-            return constructor;
-        }
-        return null;
-    }
-
-    private static boolean checkConstructMatched(Constructor<?> constructor, Object... values) {
-
-        Class<?>[] parameterTypes = constructor.getParameterTypes();
-        if (parameterTypes.length != values.length) {
-            return false;
-        }
-        for (int i = 0; i < values.length; i++) {
-            if (null != values[i]) {
-                if (!ClassUtils.isAssignable(values[i].getClass(), formatParamType(parameterTypes[i]))) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    private static Class<?> formatParamType(Class<?> paramClass) {
-        if (!paramClass.isPrimitive()) {
-            return paramClass;
-        }
-        if (int.class.equals(paramClass)) {
-            return Integer.class;
-        } else if (long.class.equals(paramClass)) {
-            return Long.class;
-        } else if (double.class.equals(paramClass)) {
-            return Double.class;
-        } else if (boolean.class.equals(paramClass)) {
-            return Boolean.class;
+    private static BeanCreationStrategy getCreationStrategy(Class<?> beanClass) {
+        ApplicationContext context = SpringApplicationContextHolder.getContext();
+        BeanCreationStrategy strategy = STRATEGY_CACHE.get(beanClass);
+        if (null != strategy && strategy.getContext() == context) {
+            return strategy;
         }
-        return paramClass;
+        strategy = BeanCreationStrategy.resolve(beanClass, context);
+        STRATEGY_CACHE.put(beanClass, strategy);
+        return strategy;
     }
 
-    private static SpringAnnotationResult getSpringAnnotationResult(Class<?> beanClass) {
+    static SpringAnnotationResult getSpringAnnotationResult(Class<?> beanClass) {
         Service service = getAnnotation(beanClass, Service.class);
         if (null != service) {
             return new SpringAnnotationResult(true, service.value());
@@ -0,0 +1,98 @@
+package org.hiforce.lattice.runtime.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hiforce.lattice.annotation.processor.RegistrationIndexProcessor;
+import org.hiforce.lattice.utils.ServicesFileUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * The build-time registration index generated by {@link RegistrationIndexProcessor}.
+ * The index is consulted by the class path scan of {@link ClassPathScanHandler}, the classes
+ * of a root compiled with the processor and not indexed as model classes are not loaded.
+ * The classes the processor never compiled, e.g. in a shaded jar, are still loaded, so a
+ * partially indexed root is scanned as if it had no index.
+ * The index can be disabled with the system property {@code lattice.index.enabled}.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+@Slf4j
+public abstract class RegistrationIndex {
+
+    public static final String INDEX_ENABLED_PROPERTY = "lattice.index.enabled";
+
+    private static final RootIndex NO_INDEX = new RootIndex(Collections.emptySet(), Collections.emptySet());
+
+    /**
+     * The index of each class path root, {@link #NO_INDEX} if the root has no index.
+     */
+    private static final Map<String, RootIndex> ROOT_INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * @param packageUrl  the url of the package resolved by the scan.
+     * @param packagePath the resource path of the package.
+     * @return the filter of the class names to load, null if all the classes should be loaded.
+     */
+    public static Predicate<String> getClassFilter(URL packageUrl, String packagePath) {
+        if (!Boolean.parseBoolean(System.getProperty(INDEX_ENABLED_PROPERTY, "true"))) {
+            return null;
+        }
+        String url = StringUtils.removeEnd(packageUrl.toString(), "/");
+        String path = StringUtils.removeEnd(packagePath, "/");
+        if (!url.endsWith(path)) {
+            return null;
+        }
+        String root = url.substring(0, url.length() - path.length());
+        RootIndex index = ROOT_INDEXES.computeIfAbsent(root, RegistrationIndex::loadRootIndex);
+        return index == NO_INDEX ? null : index::isLoadRequired;
+    }
+
+    private static RootIndex loadRootIndex(String root) {
+        Set<String> compiledClasses = readIndex(root, RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE);
+        if (null == compiledClasses || compiledClasses.isEmpty()) {
+            return NO_INDEX;
+        }
+        Set<String> modelClasses = readIndex(root, RegistrationIndexProcessor.INDEX_RESOURCE);
+        if (null == modelClasses) {
+            return NO_INDEX;
+        }
+        return new RootIndex(modelClasses, compiledClasses);
+    }
+
+    private static Set<String> readIndex(String root, String resource) {
+        try (InputStream input = new URL(root + resource).openStream()) {
+            return ServicesFileUtils.readServiceFile(input);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static void clearCache() {
+        ROOT_INDEXES.clear();
+    }
+
+    private static class RootIndex {
+
+        private final Set<String> modelClasses;
+
+        private final Set<String> compiledClasses;
+
+        private RootIndex(Set<String> modelClasses, Set<String> compiledClasses) {
+            this.modelClasses = modelClasses;
+            this.compiledClasses = compiledClasses;
+        }
+
+        private boolean isLoadRequired(String className) {
+            return modelClasses.contains(className) || !compiledClasses.contains(className);
+        }
+    }
+}
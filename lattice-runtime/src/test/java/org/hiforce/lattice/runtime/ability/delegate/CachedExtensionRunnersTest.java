@@ -0,0 +1,281 @@
+package org.hiforce.lattice.runtime.ability.delegate;
+
+import org.hiforce.lattice.annotation.model.ProtocolType;
+import org.hiforce.lattice.extension.ExtensionRemoteRunner;
+import org.hiforce.lattice.extension.ExtensionRunnerType;
+import org.hiforce.lattice.extension.RemoteExtensionRunnerBuilder;
+import org.hiforce.lattice.extension.RunnerItemEntry;
+import org.hiforce.lattice.model.ability.IAbility;
+import org.hiforce.lattice.model.ability.IBusinessExt;
+import org.hiforce.lattice.model.ability.execute.ExtensionCallback;
+import org.hiforce.lattice.model.business.BizContext;
+import org.hiforce.lattice.model.business.IBizObject;
+import org.hiforce.lattice.model.business.TemplateType;
+import org.hiforce.lattice.model.config.BusinessConfig;
+import org.hiforce.lattice.model.config.ExtPriority;
+import org.hiforce.lattice.model.config.ExtPriorityConfig;
+import org.hiforce.lattice.model.register.BusinessSpec;
+import org.hiforce.lattice.model.register.ExtensionSpec;
+import org.hiforce.lattice.model.register.TemplateSpec;
+import org.hiforce.lattice.runtime.Lattice;
+import org.hiforce.lattice.runtime.ability.execute.filter.ExtensionFilter;
+import org.hiforce.lattice.runtime.ability.register.TemplateRegister;
+import org.hiforce.lattice.runtime.cache.ability.AbilityCache;
+import org.hiforce.lattice.runtime.cache.config.BusinessConfigCache;
+import org.hiforce.lattice.runtime.utils.SpringApplicationContextHolder;
+import org.hiforce.lattice.test.ability.SampleAbility;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import javax.annotation.Nonnull;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A hit of the cached extension runners must not read the business config again, and the
+ * cached runners are shared by all the abilities, so they are immutable and not bound to any.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class CachedExtensionRunnersTest {
+
+    private static final String BIZ_CODE = "business.a";
+
+    private static final String REMOTE_BIZ_CODE = "business.remote";
+
+    private static Method getCachedExtensionRunners;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        if (!Lattice.getInstance().isInitialized()) {
+            Lattice.getInstance().setSimpleMode(true);
+            Lattice.getInstance().start();
+        }
+        // 触发业务配置的自动构建
+        newAbility(BIZ_CODE, 1L).invokeExtension();
+        getCachedExtensionRunners = BaseLatticeAbilityDelegate.class.getDeclaredMethod(
+                "getCachedExtensionRunners", ExtensionSpec.class, BusinessConfig.class, ExtensionFilter.class);
+        getCachedExtensionRunners.setAccessible(true);
+    }
+
+    @Test
+    public void testHitNotReadBusinessConfig() throws Exception {
+        ExtensionSpec extension = getSampleExtension();
+        CountingBusinessConfig config = new CountingBusinessConfig(
+                BusinessConfigCache.getInstance().getBusinessConfigByBizCode(BIZ_CODE));
+        AbilityCache.getInstance().clearExtensionRunners();
+
+        List<RunnerItemEntry<?>> loaded = getCachedExtensionRunners(newAbility(BIZ_CODE, 1L), extension, config);
+        assertNotNull(loaded);
+        assertFalse(loaded.isEmpty());
+        assertTrue(config.reads.get() > 0);
+
+        config.reads.set(0);
+        List<RunnerItemEntry<?>> cached = getCachedExtensionRunners(newAbility(BIZ_CODE, 2L), extension, config);
+        assertSame(loaded, cached);
+        assertEquals(0, config.reads.get());
+    }
+
+    @Test
+    public void testCachedRunnersImmutableAndUnbound() throws Exception {
+        ExtensionSpec extension = getSampleExtension();
+        BusinessConfig config = BusinessConfigCache.getInstance().getBusinessConfigByBizCode(BIZ_CODE);
+        List<RunnerItemEntry<?>> cached = getCachedExtensionRunners(newAbility(BIZ_CODE, 3L), extension, config);
+        assertNotNull(cached);
+        try {
+            cached.add(cached.get(0));
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        for (RunnerItemEntry<?> entry : cached) {
+            assertNull(entry.getAbility());
+            assertNull(getRunnerAbility(entry));
+        }
+    }
+
+    @Test
+    public void testRemoteRunnersUnbound() throws Exception {
+        ExtensionSpec sample = getSampleExtension();
+        ExtensionSpec extension = ExtensionSpec.of(sample.getInvokeMethod(), sample.getAbilityCode(),
+                sample.getCode(), sample.getName(), sample.getDescription());
+        extension.setProtocolType(ProtocolType.REMOTE);
+
+        BusinessSpec business = new BusinessSpec();
+        business.setCode(REMOTE_BIZ_CODE);
+        business.setName("Remote Business [" + REMOTE_BIZ_CODE + "]");
+        business.setRemote(true);
+        ExtPriorityConfig priorityConfig = new ExtPriorityConfig(extension.getCode());
+        priorityConfig.getPriorities().add(ExtPriority.of(REMOTE_BIZ_CODE, TemplateType.BUSINESS));
+        BusinessConfig config = new BusinessConfig(REMOTE_BIZ_CODE, 1000,
+                Collections.emptySet(), Collections.singletonList(priorityConfig));
+
+        TestRemoteRunnerBuilder builder = new TestRemoteRunnerBuilder();
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(RemoteExtensionRunnerBuilder.class, () -> builder);
+        context.refresh();
+        ApplicationContext previous = SpringApplicationContextHolder.getContext();
+        new SpringApplicationContextHolder().setApplicationContext(context);
+        TemplateRegister.getInstance().addBusiness(business);
+        try {
+            List<RunnerItemEntry<?>> cached =
+                    getCachedExtensionRunners(newAbility(REMOTE_BIZ_CODE, 1L), extension, config);
+            assertEquals(1, cached.size());
+            assertEquals(Collections.singletonList(REMOTE_BIZ_CODE), builder.bizCodes);
+            RunnerItemEntry<?> entry = cached.get(0);
+            assertTrue(entry.getRunner() instanceof TestRemoteRunner);
+            assertNull(getRunnerAbility(entry));
+
+            // 命中缓存时不再构建远程执行器，调用时才绑定ability
+            SampleAbility ability = newAbility(REMOTE_BIZ_CODE, 2L);
+            assertSame(cached, getCachedExtensionRunners(ability, extension, config));
+            assertEquals(1, builder.bizCodes.size());
+            RunnerItemEntry<?> bound = entry.bind(ability);
+            assertSame(ability, bound.getAbility());
+            assertSame(ability, getRunnerAbility(bound));
+            assertNull(getRunnerAbility(entry));
+        } finally {
+            TemplateRegister.getInstance().removeBusiness(REMOTE_BIZ_CODE);
+            new SpringApplicationContextHolder().setApplicationContext(previous);
+            context.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<RunnerItemEntry<?>> getCachedExtensionRunners(
+            SampleAbility ability, ExtensionSpec extension, BusinessConfig config) throws Exception {
+        Field delegate = ability.getClass().getSuperclass().getDeclaredField("delegate");
+        delegate.setAccessible(true);
+        return (List<RunnerItemEntry<?>>) getCachedExtensionRunners.invoke(
+                delegate.get(ability), extension, config, ExtensionFilter.DEFAULT_FILTER);
+    }
+
+    private static Object getRunnerAbility(RunnerItemEntry<?> entry) throws Exception {
+        for (Class<?> clz = entry.getRunner().getClass(); null != clz; clz = clz.getSuperclass()) {
+            try {
+                Field field = clz.getDeclaredField("ability");
+                field.setAccessible(true);
+                return field.get(entry.getRunner());
+            } catch (NoSuchFieldException ex) {
+                // 继续查找父类
+            }
+        }
+        return null;
+    }
+
+    private static ExtensionSpec getSampleExtension() {
+        return Lattice.getInstance().getAllRegisteredAbilities().stream()
+                .flatMap(p -> p.getAbilityInstances().stream())
+                .flatMap(p -> p.getExtensions().stream())
+                .filter(p -> "sampleExtensionInvoke".equals(p.getInvokeMethod().getName()))
+                .findFirst().orElseThrow(IllegalStateException::new);
+    }
+
+    private static SampleAbility newAbility(String bizCode, Long bizId) {
+        return new SampleAbility(() -> new BizContext() {
+
+            @Override
+            public Serializable getBizId() {
+                return bizId;
+            }
+
+            @Override
+            public String getBizCode() {
+                return bizCode;
+            }
+
+            @Override
+            public String getScenario() {
+                return null;
+            }
+        });
+    }
+
+    private static class CountingBusinessConfig extends BusinessConfig {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        CountingBusinessConfig(BusinessConfig config) {
+            super(config.getBizCode(), config.getPriority(), config.getProducts(), config.getExtensions());
+        }
+
+        @Override
+        public List<ExtPriorityConfig> getExtensions() {
+            reads.incrementAndGet();
+            return super.getExtensions();
+        }
+
+        @Override
+        public List<ExtPriority> getExtPriorityByCode(String extCode, boolean onlyHorizontal) {
+            reads.incrementAndGet();
+            return super.getExtPriorityByCode(extCode, onlyHorizontal);
+        }
+    }
+
+    private static class TestRemoteRunnerBuilder implements RemoteExtensionRunnerBuilder {
+
+        private final List<String> bizCodes = new ArrayList<>();
+
+        @Override
+        public <R> ExtensionRemoteRunner<R> build(
+                String bizCode, TemplateSpec templateSpec, String extCode, String scenario) {
+            bizCodes.add(bizCode);
+            return new TestRemoteRunner<>(extCode);
+        }
+    }
+
+    private static class TestRemoteRunner<R> extends ExtensionRemoteRunner<R> {
+
+        private IAbility ability;
+
+        TestRemoteRunner(String extensionCode) {
+            super(extensionCode);
+        }
+
+        @Override
+        public void setAbility(IAbility ability) {
+            this.ability = ability;
+        }
+
+        @Override
+        public TestRemoteRunner<R> bind(IAbility ability) {
+            TestRemoteRunner<R> runner = new TestRemoteRunner<>(getExtensionCode());
+            runner.setAbility(ability);
+            return runner;
+        }
+
+        @Override
+        public R runFirstMatched(IBizObject bizObject, ExtensionCallback<IBusinessExt, R> callback,
+                                 RunnerExecuteResult executeResult) {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public List<R> runAllMatched(IBizObject bizObject, ExtensionCallback<IBusinessExt, R> callback,
+                                     RunnerExecuteResult executeResult) {
+            return Collections.singletonList(null);
+        }
+
+        @Override
+        public ExtensionRunnerType getType() {
+            return ExtensionRunnerType.RMI;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.hiforce.lattice.runtime.ability.execute;
+
+import org.hiforce.lattice.extension.ExtensionRunner;
+import org.hiforce.lattice.extension.ExtensionRunnerType;
+import org.hiforce.lattice.extension.RunnerItemEntry;
+import org.hiforce.lattice.model.ability.IAbility;
+import org.hiforce.lattice.model.ability.IBusinessExt;
+import org.hiforce.lattice.model.ability.execute.ExtensionCallback;
+import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.business.IBizObject;
+import org.hiforce.lattice.runtime.ability.reduce.Reducers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The runners of the ALL and NONE reduce are fanned out in parallel, the results are still
+ * reduced in the priority order and the reduce breaks as the sequential one does.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ParallelReduceExecuteTest {
+
+    private static final IBizObject BIZ_OBJECT = () -> null;
+
+    private static final ExtensionCallback<IBusinessExt, Integer> CALLBACK = p -> null;
+
+    private static final Predicate<Integer> GREATER_THAN_FIVE = p -> null != p && p > 5;
+
+    @Test
+    public void testResultsInPriorityOrder() {
+        // 优先级越高的执行器越晚完成
+        List<TestRunner> runners = Arrays.asList(
+                new TestRunner(1, 300), new TestRunner(2, 200), new TestRunner(3, 100), new TestRunner(4, 0));
+        ExecuteResult<List<Integer>> result = reduce(runners, Reducers.none(), true);
+        assertEquals(Arrays.asList(1, 2, 3, 4), result.getResult());
+        assertEquals(4, result.getDetailResults().size());
+        for (TestRunner runner : runners) {
+            assertNotEquals(Thread.currentThread(), runner.executedBy);
+        }
+    }
+
+    @Test
+    public void testRunnersRunConcurrently() {
+        CountDownLatch allStarted = new CountDownLatch(2);
+        List<TestRunner> runners = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            runners.add(new TestRunner(i, 0) {
+                @Override
+                Integer run() throws InterruptedException {
+                    allStarted.countDown();
+                    // 顺序执行时第一个执行器无法等到其余执行器启动
+                    assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+                    return super.run();
+                }
+            });
+        }
+        assertEquals(Arrays.asList(1, 2), reduce(runners, Reducers.none(), true).getResult());
+    }
+
+    @Test
+    public void testSameResultsAsSequential() {
+        List<List<Integer>> cases = Arrays.asList(
+                Arrays.asList(6, 7, 8), Arrays.asList(6, 1, 8), Arrays.asList(1, 2, 3), Collections.emptyList());
+        for (List<Integer> values : cases) {
+            List<TestRunner> runners = new ArrayList<>();
+            for (Integer value : values) {
+                runners.add(new TestRunner(value, 0));
+            }
+            assertEquals(reduce(runners, Reducers.allMatch(GREATER_THAN_FIVE), false).getResult(),
+                    reduce(runners, Reducers.allMatch(GREATER_THAN_FIVE), true).getResult());
+            assertEquals(reduce(runners, Reducers.noneMatch(GREATER_THAN_FIVE), false).getResult(),
+                    reduce(runners, Reducers.noneMatch(GREATER_THAN_FIVE), true).getResult());
+            assertEquals(reduce(runners, Reducers.none(), false).getResult(),
+                    reduce(runners, Reducers.none(), true).getResult());
+        }
+    }
+
+    @Test
+    public void testShortCircuitCancelsLeftRunners() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        TestRunner slow = new TestRunner(9, 0) {
+            @Override
+            Integer run() {
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return 9;
+            }
+        };
+        List<TestRunner> runners = Arrays.asList(new TestRunner(6, 50), new TestRunner(1, 50), slow);
+
+        long start = System.nanoTime();
+        ExecuteResult<Boolean> result = reduce(runners, Reducers.allMatch(GREATER_THAN_FIVE), true);
+        assertFalse(result.getResult());
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        // 已中断的归约只记录到中断为止的执行器结果
+        assertEquals(Arrays.asList(6), result.getDetailResults().get(0).getInvokeResults());
+        assertEquals(Arrays.asList(1), result.getDetailResults().get(1).getInvokeResults());
+        assertTrue(null == slow.executedBy || interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFirstReduceRunsSequentially() {
+        List<TestRunner> runners = Arrays.asList(new TestRunner(1, 0), new TestRunner(7, 0), new TestRunner(8, 0));
+        ExecuteResult<Integer> result = reduce(runners, Reducers.firstOf(GREATER_THAN_FIVE), true);
+        assertEquals(Integer.valueOf(7), result.getResult());
+        assertSame(Thread.currentThread(), runners.get(0).executedBy);
+        assertSame(Thread.currentThread(), runners.get(1).executedBy);
+        assertEquals(null, runners.get(2).executedBy);
+    }
+
+    @Test
+    public void testNoNestedFanOut() {
+        AtomicBoolean fanOutAllowed = new AtomicBoolean(true);
+        List<TestRunner> runners = Arrays.asList(new TestRunner(1, 0) {
+            @Override
+            Integer run() throws InterruptedException {
+                fanOutAllowed.set(ExtensionParallelExecutor.getInstance().isFanOutAllowed());
+                return super.run();
+            }
+        }, new TestRunner(2, 0));
+        reduce(runners, Reducers.none(), true);
+        assertFalse(fanOutAllowed.get());
+        assertTrue(ExtensionParallelExecutor.getInstance().isFanOutAllowed());
+    }
+
+    @Test
+    public void testRunnerExceptionPropagated() {
+        IllegalStateException error = new IllegalStateException("runner failed");
+        List<TestRunner> runners = Arrays.asList(new TestRunner(1, 0), new TestRunner(2, 0) {
+            @Override
+            Integer run() {
+                throw error;
+            }
+        });
+        try {
+            reduce(runners, Reducers.none(), true);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertSame(error, ex);
+        }
+    }
+
+    @Test
+    public void testDefaultExecutorBounded() {
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) ExtensionParallelExecutor.getInstance().getExecutor();
+        assertTrue(pool.getQueue().remainingCapacity() < Integer.MAX_VALUE);
+        assertTrue(pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.CallerRunsPolicy);
+    }
+
+    @Test
+    public void testCallerRunsWhenSaturated() {
+        ExtensionParallelExecutor executor = ExtensionParallelExecutor.getInstance();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setExecutor(pool);
+        try {
+            // 线程池已满时由调用线程执行
+            List<TestRunner> runners = Arrays.asList(
+                    new TestRunner(1, 200), new TestRunner(2, 0), new TestRunner(3, 0));
+            ExecuteResult<List<Integer>> result = reduce(runners, Reducers.none(), true);
+            assertEquals(Arrays.asList(1, 2, 3), result.getResult());
+            assertNotEquals(Thread.currentThread(), runners.get(0).executedBy);
+            assertEquals(Thread.currentThread(), runners.get(1).executedBy);
+            assertTrue(executor.isFanOutAllowed());
+        } finally {
+            executor.setExecutor(null);
+            pool.shutdownNow();
+        }
+    }
+
+    private static <R> ExecuteResult<R> reduce(List<TestRunner> runners, Reducer<Integer, R> reducer,
+                                               boolean parallel) {
+        List<RunnerItemEntry<Integer>> entries = new ArrayList<>(runners.size());
+        for (TestRunner runner : runners) {
+            runner.executedBy = null;
+            entries.add(new RunnerItemEntry<>(null, null, runner));
+        }
+        @SuppressWarnings("unchecked")
+        Predicate<RunnerItemEntry<Integer>> acceptAll = RunnerCollection.ACCEPT_ALL;
+        RunnerCollection<Integer> collection = RunnerCollection.of(BIZ_OBJECT, entries, acceptAll);
+        return collection.reduceExecute("ext.test", reducer, CALLBACK, new ArrayList<>(), true, parallel);
+    }
+
+    private static class TestRunner extends ExtensionRunner<Integer> {
+
+        private final Integer value;
+
+        private final long delayMillis;
+
+        private volatile Thread executedBy;
+
+        TestRunner(Integer value, long delayMillis) {
+            super("ext.test");
+            this.value = value;
+            this.delayMillis = delayMillis;
+        }
+
+        Integer run() throws InterruptedException {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            return value;
+        }
+
+        @Override
+        public void setAbility(IAbility ability) {
+
+        }
+
+        @Override
+        public boolean isSingleResult() {
+            return true;
+        }
+
+        @Override
+        public Integer runFirstMatched(IBizObject bizObject, ExtensionCallback<IBusinessExt, Integer> callback,
+                                       RunnerExecuteResult executeResult) {
+            executedBy = Thread.currentThread();
+            executeResult.setExecute(true);
+            try {
+                return run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        @Override
+        public List<Integer> runAllMatched(IBizObject bizObject, ExtensionCallback<IBusinessExt, Integer> callback,
+                                           RunnerExecuteResult executeResult) {
+            return Collections.singletonList(runFirstMatched(bizObject, callback, executeResult));
+        }
+
+        @Override
+        public ExtensionRunnerType getType() {
+            return ExtensionRunnerType.JAVA;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package org.hiforce.lattice.runtime.ability.reduce;
+
+import org.hiforce.lattice.annotation.model.ReduceType;
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
+import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pins the reduce results of the per-call accumulator to the results of the stateful
+ * reducers before, the results of each runner are offered the way RunnerCollection does.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ReduceAccumulatorTest {
+
+    private static final Predicate<Integer> GREATER_THAN_FIVE = p -> null != p && p > 5;
+
+    @Test
+    public void testFirstOf() {
+        assertEquals(Integer.valueOf(1), reduce(Reducers.firstOf(), runners(1, 2, 3)));
+        assertNull(reduce(Reducers.firstOf(), runners()));
+        assertEquals(Integer.valueOf(7), reduce(Reducers.firstOf(GREATER_THAN_FIVE), runners(1, 7, 9)));
+        assertNull(reduce(Reducers.firstOf(GREATER_THAN_FIVE), runners(1, 2, 3)));
+        assertEquals(Integer.valueOf(8), reduce(Reducers.firstOf(GREATER_THAN_FIVE),
+                Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 8, 9))));
+    }
+
+    @Test
+    public void testAllMatch() {
+        assertTrue(reduce(Reducers.allMatch(GREATER_THAN_FIVE), runners(6, 7)));
+        assertFalse(reduce(Reducers.allMatch(GREATER_THAN_FIVE), runners(6, 1, 7)));
+        assertTrue(reduce(Reducers.allMatch(GREATER_THAN_FIVE), runners()));
+        assertTrue(reduce(Reducers.allMatch(GREATER_THAN_FIVE),
+                Arrays.asList(Collections.emptyList(), Collections.singletonList(6))));
+    }
+
+    @Test
+    public void testAllMatchNotEmpty() {
+        assertTrue(reduce(Reducers.AllMatchNotEmpty(GREATER_THAN_FIVE), runners(6, 7)));
+        assertFalse(reduce(Reducers.AllMatchNotEmpty(GREATER_THAN_FIVE), runners(6, 1)));
+        assertFalse(reduce(Reducers.AllMatchNotEmpty(GREATER_THAN_FIVE), runners()));
+        assertFalse(reduce(Reducers.AllMatchNotEmpty(GREATER_THAN_FIVE),
+                Collections.singletonList(Collections.emptyList())));
+    }
+
+    @Test
+    public void testAnyMatch() {
+        assertTrue(reduce(Reducers.anyMatch(GREATER_THAN_FIVE), runners(1, 6, 2)));
+        assertFalse(reduce(Reducers.anyMatch(GREATER_THAN_FIVE), runners(1, 2)));
+        assertFalse(reduce(Reducers.anyMatch(GREATER_THAN_FIVE), runners()));
+    }
+
+    @Test
+    public void testNoneMatch() {
+        assertTrue(reduce(Reducers.noneMatch(GREATER_THAN_FIVE), runners(1, 2)));
+        assertFalse(reduce(Reducers.noneMatch(GREATER_THAN_FIVE), runners(1, 6, 2)));
+        assertTrue(reduce(Reducers.noneMatch(GREATER_THAN_FIVE), runners()));
+        // 空结果即中断，后续执行器的结果不再参与归约
+        assertTrue(reduce(Reducers.noneMatch(GREATER_THAN_FIVE),
+                Arrays.asList(Collections.emptyList(), Collections.singletonList(6))));
+    }
+
+    @Test
+    public void testNone() {
+        assertEquals(Arrays.asList(1, null, 3), reduce(Reducers.none(), runners(1, null, 3)));
+        assertEquals(Collections.emptyList(), reduce(Reducers.none(), runners()));
+    }
+
+    @Test
+    public void testFlatList() {
+        Reducer<List<Integer>, List<Integer>> reducer = Reducers.flatList(p -> !p.contains(0));
+        List<Collection<List<Integer>>> runners = new ArrayList<>();
+        runners.add(Collections.singletonList(Arrays.asList(1, 2)));
+        runners.add(Collections.singletonList(Arrays.asList(0, 3)));
+        runners.add(Collections.singletonList(Collections.emptyList()));
+        runners.add(Collections.singletonList(Collections.singletonList(4)));
+        assertEquals(Arrays.asList(1, 2, 4), reduce(reducer, runners));
+    }
+
+    @Test
+    public void testSharedReducerKeepsNoState() {
+        Reducer<Integer, Integer> reducer = Reducers.firstOf();
+        assertSame(reducer, Reducers.firstOf());
+        assertSame(Reducers.none(), Reducers.none());
+
+        ReduceAccumulator<Integer, Integer> first = new ReduceAccumulator<>(reducer);
+        assertTrue(first.willBreak(Collections.singletonList(1)));
+        assertTrue(first.isHasBreak());
+        assertFalse(reducer.isHasBreak());
+        assertNull(reducer.getResult());
+
+        ReduceAccumulator<Integer, Integer> second = new ReduceAccumulator<>(reducer);
+        assertFalse(second.isHasBreak());
+        assertNull(second.reduce(Collections.emptyList()));
+        assertEquals(Integer.valueOf(1), first.reduce(Collections.emptyList()));
+    }
+
+    @Test
+    public void testBrokenAccumulatorIgnoresLaterResults() {
+        ReduceAccumulator<Integer, Boolean> accumulator =
+                new ReduceAccumulator<>(Reducers.allMatch(GREATER_THAN_FIVE));
+        assertTrue(accumulator.willBreak(Collections.singletonList(1)));
+        assertTrue(accumulator.willBreak(Collections.singletonList(6)));
+        assertFalse(accumulator.reduce(Arrays.asList(6, 7)));
+    }
+
+    @Test
+    public void testStatefulCustomReducer() {
+        // 自定义 Reducer 仍可在实例中记录中断状态
+        Reducer<Integer, Integer> reducer = new Reducer<Integer, Integer>() {
+            @Override
+            public Integer reduce(Collection<Integer> elements) {
+                if (isHasBreak()) {
+                    return getResult();
+                }
+                return elements.stream().mapToInt(Integer::intValue).sum();
+            }
+
+            @Override
+            public boolean willBreak(Collection<Integer> elements) {
+                for (Integer element : elements) {
+                    if (element < 0) {
+                        setBreak();
+                        setResult(element);
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public ReduceType reducerType() {
+                return ReduceType.ALL;
+            }
+        };
+        assertEquals(Integer.valueOf(6), reduce(reducer, runners(1, 2, 3)));
+        assertEquals(Integer.valueOf(-2), reduce(reducer, runners(1, -2, 3)));
+    }
+
+    @SafeVarargs
+    private static <T> List<Collection<T>> runners(T... results) {
+        List<Collection<T>> runners = new ArrayList<>(results.length);
+        for (T result : results) {
+            runners.add(Collections.singletonList(result));
+        }
+        return runners;
+    }
+
+    /**
+     * Offers the results runner by runner to the default accumulator.
+     */
+    private static <T, R> R reduce(Reducer<T, R> reducer, List<? extends Collection<T>> runnerResults) {
+        ReduceAccumulator<T, R> accumulator = new ReduceAccumulator<>(reducer);
+        List<T> results = new ArrayList<>();
+        for (Collection<T> itemResult : runnerResults) {
+            if (accumulator.willBreak(itemResult)) {
+                return accumulator.reduce(results);
+            }
+            results.addAll(itemResult);
+        }
+        return accumulator.reduce(results);
+    }
+}
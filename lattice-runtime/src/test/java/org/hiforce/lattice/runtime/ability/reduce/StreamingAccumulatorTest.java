@@ -0,0 +1,133 @@
+package org.hiforce.lattice.runtime.ability.reduce;
+
+import org.hiforce.lattice.model.ability.execute.ReduceAccumulator;
+import org.hiforce.lattice.model.ability.execute.Reducer;
+import org.hiforce.lattice.model.ability.execute.StreamingAccumulator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The streaming accumulators fold the results as the runners produce them, the reduced
+ * results must be the same as offering the results runner by runner.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class StreamingAccumulatorTest {
+
+    private static final Predicate<Integer> GREATER_THAN_FIVE = p -> null != p && p > 5;
+
+    @Test
+    public void testStreamingReducers() {
+        assertStreaming(Reducers.none());
+        assertStreaming(Reducers.firstOf());
+        assertStreaming(Reducers.firstOf(GREATER_THAN_FIVE));
+        assertStreaming(Reducers.allMatch(GREATER_THAN_FIVE));
+        assertStreaming(Reducers.AllMatchNotEmpty(GREATER_THAN_FIVE));
+        assertStreaming(Reducers.anyMatch(GREATER_THAN_FIVE));
+    }
+
+    @Test
+    public void testSameResultsAsRunnerByRunner() {
+        List<Supplier<Reducer<Integer, ?>>> reducers = Arrays.asList(
+                Reducers::none, Reducers::firstOf,
+                () -> Reducers.firstOf(GREATER_THAN_FIVE),
+                () -> Reducers.allMatch(GREATER_THAN_FIVE),
+                () -> Reducers.AllMatchNotEmpty(GREATER_THAN_FIVE),
+                () -> Reducers.anyMatch(GREATER_THAN_FIVE));
+        Random random = new Random(20261016L);
+        for (int i = 0; i < 500; i++) {
+            List<Integer> values = new ArrayList<>();
+            int size = random.nextInt(6);
+            for (int j = 0; j < size; j++) {
+                values.add(random.nextInt(8) == 0 ? null : random.nextInt(10));
+            }
+            for (Supplier<Reducer<Integer, ?>> reducer : reducers) {
+                assertEquals(String.valueOf(values), reduceRunnerByRunner(reducer.get(), values),
+                        reduceStreaming(reducer.get(), values));
+            }
+        }
+    }
+
+    @Test
+    public void testFlatList() {
+        Reducer<List<Integer>, List<Integer>> reducer = Reducers.flatList(p -> !p.contains(0));
+        List<List<Integer>> values = Arrays.asList(Arrays.asList(1, 2), Arrays.asList(0, 3),
+                Collections.emptyList(), Collections.singletonList(4));
+        assertEquals(Arrays.asList(1, 2, 4), reduceStreaming(reducer, values));
+        assertEquals(reduceRunnerByRunner(reducer, values), reduceStreaming(reducer, values));
+    }
+
+    @Test
+    public void testStopsAfterTermination() {
+        AtomicInteger tested = new AtomicInteger();
+        Reducer<Integer, Boolean> reducer = Reducers.anyMatch(p -> {
+            tested.incrementAndGet();
+            return p > 5;
+        });
+        StreamingAccumulator<Integer, Boolean> accumulator =
+                (StreamingAccumulator<Integer, Boolean>) reducer.newAccumulator();
+        assertFalse(accumulator.offer(1));
+        assertTrue(accumulator.offer(6));
+        assertTrue(accumulator.isHasBreak());
+        assertTrue(accumulator.offer(2));
+        assertTrue(accumulator.willBreak(Collections.singletonList(3)));
+        assertEquals(2, tested.get());
+        assertTrue(accumulator.reduce(Collections.emptyList()));
+    }
+
+    @Test
+    public void testMultiResultRunner() {
+        StreamingAccumulator<Integer, Integer> accumulator =
+                (StreamingAccumulator<Integer, Integer>) Reducers.firstOf(GREATER_THAN_FIVE).newAccumulator();
+        assertFalse(accumulator.willBreak(null));
+        assertFalse(accumulator.willBreak(Arrays.asList(1, 2)));
+        assertTrue(accumulator.willBreak(Arrays.asList(3, 7, 9)));
+        // 结果已在累加时归约，reduce 的参数被忽略
+        assertEquals(Integer.valueOf(7), accumulator.reduce(Arrays.asList(8, 9)));
+    }
+
+    private static void assertStreaming(Reducer<?, ?> reducer) {
+        assertTrue(reducer.reduceName(), reducer.newAccumulator() instanceof StreamingAccumulator);
+    }
+
+    /**
+     * Offers the results runner by runner to the default accumulator.
+     */
+    private static <T, R> R reduceRunnerByRunner(Reducer<T, R> reducer, List<T> values) {
+        ReduceAccumulator<T, R> accumulator = new ReduceAccumulator<>(reducer);
+        List<T> results = new ArrayList<>();
+        for (T value : values) {
+            if (accumulator.willBreak(Collections.singletonList(value))) {
+                return accumulator.reduce(results);
+            }
+            results.add(value);
+        }
+        return accumulator.reduce(results);
+    }
+
+    /**
+     * Folds the result of each single result runner, the results are not collected.
+     */
+    private static <T, R> R reduceStreaming(Reducer<T, R> reducer, List<T> values) {
+        StreamingAccumulator<T, R> accumulator = (StreamingAccumulator<T, R>) reducer.newAccumulator();
+        for (T value : values) {
+            if (accumulator.offer(value)) {
+                break;
+            }
+        }
+        return accumulator.reduce(null);
+    }
+}
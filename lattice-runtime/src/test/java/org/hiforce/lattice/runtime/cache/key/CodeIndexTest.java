@@ -0,0 +1,48 @@
+package org.hiforce.lattice.runtime.cache.key;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class CodeIndexTest {
+
+    @After
+    public void tearDown() {
+        CodeIndex.clearCache();
+    }
+
+    @Test
+    public void testIndexNotReusedAfterClear() {
+        assertEquals(CodeIndex.NULL_INDEX, CodeIndex.indexOf(null));
+        int index = CodeIndex.indexOf("business.a");
+        assertEquals(index, CodeIndex.indexOf("business.a"));
+        assertNotEquals(index, CodeIndex.indexOf("business.b"));
+
+        CodeIndex.clearCache();
+        int other = CodeIndex.indexOf("business.b");
+        assertTrue(other > index);
+        assertNotEquals(index, CodeIndex.indexOf("business.a"));
+    }
+
+    @Test
+    public void testInternedCodesBounded() {
+        CodeIndex.clearCache();
+        for (int i = 0; i < CodeIndex.MAX_CODES; i++) {
+            assertTrue(CodeIndex.indexOf("scenario." + i) > 0);
+        }
+        assertEquals(CodeIndex.OVERFLOW, CodeIndex.indexOf("scenario.overflow"));
+
+        ExtensionRunnerCacheKey key = new ExtensionRunnerCacheKey("ext.a", "business.a", "scenario.overflow", false, false);
+        assertFalse(key.isPacked());
+        assertEquals(key, new ExtensionRunnerCacheKey("ext.a", "business.a", "scenario.overflow", false, false));
+        assertNotEquals(key, new ExtensionRunnerCacheKey("ext.b", "business.a", "scenario.overflow", false, false));
+    }
+}
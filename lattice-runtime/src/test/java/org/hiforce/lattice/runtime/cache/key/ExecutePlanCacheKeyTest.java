@@ -0,0 +1,65 @@
+package org.hiforce.lattice.runtime.cache.key;
+
+import org.hiforce.lattice.exception.LatticeRuntimeException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class ExecutePlanCacheKeyTest {
+
+    @Test
+    public void testAllowedProductsCopied() {
+        Set<String> products = new HashSet<>(Arrays.asList("product.a", "product.b"));
+        ExecutePlanCacheKey key = newKey("business.a", products);
+        ExecutePlanCacheKey same = newKey("business.a", new HashSet<>(products));
+        int hashCode = key.hashCode();
+
+        // 调用方修改集合不影响已构建的 key
+        products.add("product.c");
+        assertEquals(hashCode, key.hashCode());
+        assertEquals(same, key);
+        assertNotEquals(newKey("business.a", products), key);
+        try {
+            key.getAllowedProducts().add("product.c");
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNullAllowedProducts() {
+        assertEquals(newKey("business.a", null), newKey("business.a", null));
+        assertNotEquals(newKey("business.a", null), newKey("business.a", new HashSet<>()));
+    }
+
+    @Test
+    public void testEmptyCodesRejected() {
+        try {
+            newKey(null, null);
+            fail();
+        } catch (LatticeRuntimeException ex) {
+            assertEquals("LATTICE-CORE-RT-0008", ex.getErrorMessage().getCode());
+        }
+        try {
+            new ExecutePlanCacheKey(Object.class, "business.a", null, null, true, null, true, true);
+            fail();
+        } catch (LatticeRuntimeException ex) {
+            assertEquals("LATTICE-CORE-RT-0007", ex.getErrorMessage().getCode());
+        }
+    }
+
+    private static ExecutePlanCacheKey newKey(String bizCode, Set<String> allowedProducts) {
+        return new ExecutePlanCacheKey(Object.class, bizCode, "ext.a", null, true, allowedProducts, true, true);
+    }
+}
@@ -0,0 +1,233 @@
+package org.hiforce.lattice.runtime.session;
+
+import org.hiforce.lattice.model.business.BizContext;
+import org.hiforce.lattice.model.business.IBizObject;
+import org.hiforce.lattice.model.business.ITemplate;
+import org.hiforce.lattice.model.business.TemplateType;
+import org.hiforce.lattice.model.register.TemplateSpec;
+import org.hiforce.lattice.model.scenario.ScenarioRequest;
+import org.hiforce.lattice.runtime.cache.session.EffectiveTemplateCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class EffectiveTemplateGroupTest {
+
+    @Before
+    public void setUp() {
+        EffectiveTemplateCache.getInstance().clear();
+    }
+
+    @Test
+    public void testGroupByBizCode() {
+        List<ScenarioRequest> requests = Arrays.asList(request("biz.a", 1), request("biz.b", 2),
+                request("biz.a", 3), request("biz.c", 4), request("biz.b", 5));
+        Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+        Collection<EffectiveTemplateGroup> groups = EffectiveTemplateGroup.group(requests, bizCode -> {
+            loads.computeIfAbsent(bizCode, k -> new AtomicInteger()).incrementAndGet();
+            return Collections.emptyList();
+        });
+
+        List<String> bizCodes = new ArrayList<>();
+        for (EffectiveTemplateGroup group : groups) {
+            bizCodes.add(group.getBizCode());
+        }
+        assertEquals(Arrays.asList("biz.a", "biz.b", "biz.c"), bizCodes);
+        EffectiveTemplateGroup first = groups.iterator().next();
+        assertEquals(Arrays.asList(requests.get(0), requests.get(2)), first.getRequests());
+        for (AtomicInteger count : loads.values()) {
+            assertEquals(1, count.get());
+        }
+        assertEquals(3, loads.size());
+    }
+
+    @Test
+    public void testEffectiveTemplatesInCandidateOrder() {
+        TestTemplateSpec even = new TestTemplateSpec("template.even", true, p -> p % 2 == 0);
+        TestTemplateSpec all = new TestTemplateSpec("template.all", true, p -> true);
+        TestTemplateSpec none = new TestTemplateSpec("template.none", true, p -> false);
+        EffectiveTemplateGroup group = new EffectiveTemplateGroup("biz.a", Arrays.asList(even, all, none));
+
+        List<TemplateSpec<? extends ITemplate>> effective = group.getEffectiveTemplates(request("biz.a", 2));
+        assertEquals(Arrays.asList(even, all), effective);
+        assertEquals(Collections.singletonList(all), group.getEffectiveTemplates(request("biz.a", 1)));
+        // 生效模板相同的请求共享同一个列表
+        assertSame(effective, group.getEffectiveTemplates(request("biz.a", 4)));
+        try {
+            effective.add(none);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStatefulTemplateInstancePerEvaluation() {
+        TestTemplateSpec stateless = new TestTemplateSpec("template.stateless", true, p -> true);
+        TestTemplateSpec stateful = new TestTemplateSpec("template.stateful", false, p -> true);
+        assertTrue(new EffectiveTemplateGroup("biz.a", Collections.singletonList(stateless)).isStateless());
+
+        EffectiveTemplateGroup group = new EffectiveTemplateGroup("biz.a", Arrays.asList(stateless, stateful));
+        assertFalse(group.isStateless());
+        int created = stateful.created.get();
+        for (int i = 0; i < 3; i++) {
+            group.getEffectiveTemplates(request("biz.a", i));
+        }
+        assertEquals(created + 3, stateful.created.get());
+        assertEquals(1, stateless.created.get());
+    }
+
+    @Test
+    public void testParallelSameAsSequential() {
+        TestTemplateSpec even = new TestTemplateSpec("template.even", true, p -> p % 2 == 0);
+        TestTemplateSpec third = new TestTemplateSpec("template.third", true, p -> p % 3 == 0);
+        EffectiveTemplateGroup group = new EffectiveTemplateGroup("biz.a", Arrays.asList(even, third));
+        for (int i = 0; i < 1000; i++) {
+            group.addRequest(request("biz.a", i));
+        }
+        assertTrue(group.isStateless());
+
+        Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> sequential = new IdentityHashMap<>();
+        group.evaluate(sequential, false);
+        assertEquals(Collections.singleton(Thread.currentThread()), even.evaluatedBy);
+
+        even.evaluatedBy.clear();
+        Map<IBizObject, List<TemplateSpec<? extends ITemplate>>> parallel = new IdentityHashMap<>();
+        group.evaluate(parallel, true);
+        assertFalse(even.evaluatedBy.contains(Thread.currentThread()));
+
+        assertEquals(1000, parallel.size());
+        for (ScenarioRequest request : group.getRequests()) {
+            assertEquals(sequential.get(request.getBizObject()), parallel.get(request.getBizObject()));
+        }
+        assertEquals(Arrays.asList(even, third), parallel.get(group.getRequests().get(6).getBizObject()));
+    }
+
+    @Test
+    public void testEffectivenessKeyEvaluatedOnce() {
+        TestTemplateSpec even = new TestTemplateSpec("template.even", true, p -> p % 2 == 0);
+        EffectiveTemplateGroup group = new EffectiveTemplateGroup("biz.a", Collections.singletonList(even));
+        List<TemplateSpec<? extends ITemplate>> first = group.getEffectiveTemplates(request("biz.a", 2, "even"));
+        List<TemplateSpec<? extends ITemplate>> second = group.getEffectiveTemplates(request("biz.a", 4, "even"));
+        assertSame(first, second);
+        assertEquals(1, even.evaluated.get());
+
+        assertNotSame(first, group.getEffectiveTemplates(request("biz.a", 1, "odd")));
+        assertEquals(2, even.evaluated.get());
+    }
+
+    private static ScenarioRequest request(String bizCode, int bizId) {
+        return request(bizCode, bizId, null);
+    }
+
+    private static ScenarioRequest request(String bizCode, int bizId, Object effectivenessKey) {
+        BizContext context = new BizContext() {
+            @Override
+            public Serializable getBizId() {
+                return bizId;
+            }
+
+            @Override
+            public String getBizCode() {
+                return bizCode;
+            }
+
+            @Override
+            public String getScenario() {
+                return null;
+            }
+        };
+        IBizObject bizObject = () -> context;
+        return new ScenarioRequest() {
+            @Override
+            public IBizObject getBizObject() {
+                return bizObject;
+            }
+
+            @Override
+            public Object getEffectivenessKey() {
+                return effectivenessKey;
+            }
+        };
+    }
+
+    private static class TestTemplateSpec extends TemplateSpec<ITemplate> {
+
+        private final boolean stateless;
+
+        private final Predicate<Integer> predicate;
+
+        private final AtomicInteger created = new AtomicInteger();
+
+        private final AtomicInteger evaluated = new AtomicInteger();
+
+        private final Set<Thread> evaluatedBy = ConcurrentHashMap.newKeySet();
+
+        TestTemplateSpec(String code, boolean stateless, Predicate<Integer> predicate) {
+            this.stateless = stateless;
+            this.predicate = predicate;
+            setCode(code);
+        }
+
+        @Override
+        public ITemplate newInstance() {
+            created.incrementAndGet();
+            return new ITemplate() {
+                @Override
+                public String getCode() {
+                    return TestTemplateSpec.this.getCode();
+                }
+
+                @Override
+                public TemplateType getType() {
+                    return TemplateType.PRODUCT;
+                }
+
+                @Override
+                public boolean isEffect(ScenarioRequest request) {
+                    evaluated.incrementAndGet();
+                    evaluatedBy.add(Thread.currentThread());
+                    return predicate.test((Integer) request.getBizObject().getBizId());
+                }
+
+                @Override
+                public Long getInternalId() {
+                    return 1L;
+                }
+
+                @Override
+                public boolean isPatternTemplateCode() {
+                    return false;
+                }
+
+                @Override
+                public boolean isStateless() {
+                    return stateless;
+                }
+            };
+        }
+    }
+}
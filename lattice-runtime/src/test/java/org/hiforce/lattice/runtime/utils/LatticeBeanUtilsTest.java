@@ -0,0 +1,88 @@
+package org.hiforce.lattice.runtime.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The beans created without the Spring context, via the constructor handles or reflectively
+ * when the constructors are not accessible via the public lookup.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class LatticeBeanUtilsTest {
+
+    @Before
+    public void setUp() {
+        LatticeBeanUtils.clearCache();
+    }
+
+    @Test
+    public void testPublicBean() {
+        PublicBean bean = LatticeBeanUtils.getAndCreateSpringBeanViaClass(PublicBean.class);
+        assertEquals("default", bean.value);
+        assertNotSame(bean, LatticeBeanUtils.getAndCreateSpringBeanViaClass(PublicBean.class));
+
+        PublicArgBean argBean = LatticeBeanUtils.getAndCreateSpringBeanViaClass(PublicArgBean.class, "arg");
+        assertEquals("arg", argBean.value);
+        // 没有参数时以 null 调用第一个构造函数
+        assertNull(((PublicArgBean) LatticeBeanUtils.getAndCreateSpringBeanViaClass(PublicArgBean.class)).value);
+        assertNull(LatticeBeanUtils.getAndCreateSpringBeanViaClass(PublicArgBean.class, 1));
+    }
+
+    @Test
+    public void testNonPublicBean() {
+        Object bean = LatticeBeanUtils.getAndCreateSpringBeanViaClass(NonPublicBean.class);
+        assertTrue(bean instanceof NonPublicBean);
+        assertEquals("default", ((NonPublicBean) bean).value);
+
+        Object argBean = LatticeBeanUtils.getAndCreateSpringBeanViaClass(NonPublicArgBean.class, "arg");
+        assertTrue(argBean instanceof NonPublicArgBean);
+        assertEquals("arg", ((NonPublicArgBean) argBean).value);
+    }
+
+    @Test
+    public void testAbstractBean() {
+        assertNull(LatticeBeanUtils.getAndCreateSpringBeanViaClass(AbstractBean.class));
+        assertNull(LatticeBeanUtils.getAndCreateSpringBeanViaClass(null));
+    }
+
+    public static class PublicBean {
+
+        private final String value = "default";
+    }
+
+    public static class PublicArgBean {
+
+        private final String value;
+
+        public PublicArgBean(String value) {
+            this.value = value;
+        }
+    }
+
+    static class NonPublicBean {
+
+        private final String value = "default";
+
+        public NonPublicBean() {
+        }
+    }
+
+    static class NonPublicArgBean {
+
+        private final String value;
+
+        public NonPublicArgBean(String value) {
+            this.value = value;
+        }
+    }
+
+    public abstract static class AbstractBean {
+    }
+}
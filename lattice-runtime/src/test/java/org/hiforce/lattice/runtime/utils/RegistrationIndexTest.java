@@ -0,0 +1,188 @@
+package org.hiforce.lattice.runtime.utils;
+
+import org.hiforce.lattice.annotation.processor.RegistrationIndexProcessor;
+import org.hiforce.lattice.utils.ServicesFileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The scan skips loading only the classes the index knows as compiled and not model classes,
+ * the classes compiled without the processor are loaded as if the root had no index.
+ *
+ * @author Rocky Yu
+ * @since 2026/10/16
+ */
+public class RegistrationIndexTest {
+
+    private static final String PACKAGE = "test.index";
+
+    private static final String MODEL = PACKAGE + ".ModelExt";
+
+    private static final String PLAIN = PACKAGE + ".Plain";
+
+    private static final String UNINDEXED = PACKAGE + ".sub.UnindexedExt";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classes;
+
+    @Before
+    public void setUp() throws IOException {
+        RegistrationIndex.clearCache();
+        classes = folder.newFolder("classes");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler);
+        List<String> options = new ArrayList<>(Arrays.asList("-proc:none",
+                "-classpath", System.getProperty("java.class.path"), "-d", classes.getAbsolutePath()));
+        assertTrue(compiler.getTask(null, null, null, options, null, Arrays.asList(
+                source(MODEL, "public interface ModelExt extends org.hiforce.lattice.model.ability.IBusinessExt {}"),
+                source(PLAIN, "public class Plain {}"),
+                source(UNINDEXED, "public interface UnindexedExt extends test.index.ModelExt {}"))).call());
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(RegistrationIndex.INDEX_ENABLED_PROPERTY);
+        RegistrationIndex.clearCache();
+    }
+
+    @Test
+    public void testIndexedRoot() throws IOException {
+        // UnindexedExt 模拟未经注解处理器编译的类
+        writeIndex(RegistrationIndexProcessor.INDEX_RESOURCE, Arrays.asList(MODEL));
+        writeIndex(RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE, Arrays.asList(MODEL, PLAIN));
+
+        RecordingClassLoader classLoader = newClassLoader();
+        assertEquals(set(MODEL, UNINDEXED), scan(classLoader));
+        assertEquals(set(MODEL, UNINDEXED), classLoader.loaded);
+    }
+
+    @Test
+    public void testRootWithoutIndex() throws IOException {
+        RecordingClassLoader classLoader = newClassLoader();
+        assertEquals(set(MODEL, PLAIN, UNINDEXED), scan(classLoader));
+        assertEquals(set(MODEL, PLAIN, UNINDEXED), classLoader.loaded);
+    }
+
+    @Test
+    public void testIndexWithoutCompiledClasses() throws IOException {
+        // 旧版本处理器只生成模型类索引
+        writeIndex(RegistrationIndexProcessor.INDEX_RESOURCE, Arrays.asList(MODEL));
+        assertEquals(set(MODEL, PLAIN, UNINDEXED), scan(newClassLoader()));
+    }
+
+    @Test
+    public void testIndexDisabled() throws IOException {
+        writeIndex(RegistrationIndexProcessor.INDEX_RESOURCE, Arrays.asList(MODEL));
+        writeIndex(RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE, Arrays.asList(MODEL, PLAIN, UNINDEXED));
+        System.setProperty(RegistrationIndex.INDEX_ENABLED_PROPERTY, "false");
+
+        RecordingClassLoader classLoader = newClassLoader();
+        assertEquals(set(MODEL, PLAIN, UNINDEXED), scan(classLoader));
+        assertEquals(set(MODEL, PLAIN, UNINDEXED), classLoader.loaded);
+    }
+
+    @Test
+    public void testScanLatticeClassesWithContextClassLoader() throws IOException {
+        writeIndex(RegistrationIndexProcessor.INDEX_RESOURCE, Arrays.asList(MODEL));
+        writeIndex(RegistrationIndexProcessor.COMPILED_INDEX_RESOURCE, Arrays.asList(MODEL, PLAIN));
+
+        RecordingClassLoader classLoader = newClassLoader();
+        ClassLoader origin = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            assertEquals(set(MODEL, UNINDEXED), names(ClassLoaderUtil.scanLatticeClasses(PACKAGE)));
+            // 类由扫描使用的类加载器加载
+            assertEquals(set(MODEL, UNINDEXED), classLoader.loaded);
+        } finally {
+            Thread.currentThread().setContextClassLoader(origin);
+            ClassPathScanHandler.clearCache();
+        }
+    }
+
+    private static Set<String> scan(ClassLoader classLoader) {
+        ClassPathScanHandler handler = new ClassPathScanHandler();
+        handler.setUseRegistrationIndex(true);
+        return names(handler.innerGetPackageAllClasses(PACKAGE, true, classLoader));
+    }
+
+    private RecordingClassLoader newClassLoader() throws IOException {
+        return new RecordingClassLoader(new URL[]{classes.toURI().toURL()},
+                RegistrationIndexTest.class.getClassLoader());
+    }
+
+    private void writeIndex(String resource, Collection<String> classNames) throws IOException {
+        File file = new File(classes, resource);
+        assertTrue(file.getParentFile().exists() || file.getParentFile().mkdirs());
+        try (OutputStream out = new FileOutputStream(file)) {
+            ServicesFileUtils.writeServiceFile(classNames, out);
+        }
+    }
+
+    private static Set<String> names(Collection<Class<?>> classes) {
+        Set<String> names = new HashSet<>();
+        for (Class<?> clz : classes) {
+            names.add(clz.getName());
+        }
+        return names;
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static JavaFileObject source(String className, String body) {
+        String packageName = className.substring(0, className.lastIndexOf('.'));
+        String content = "package " + packageName + ";\n" + body;
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    private static class RecordingClassLoader extends URLClassLoader {
+
+        private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+        RecordingClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            Class<?> clz = super.findClass(name);
+            loaded.add(name);
+            return clz;
+        }
+    }
+}
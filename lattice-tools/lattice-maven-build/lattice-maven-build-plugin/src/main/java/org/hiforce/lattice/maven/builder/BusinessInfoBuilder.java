@@ -46,7 +46,7 @@ public class BusinessInfoBuilder extends LatticeInfoBuilder {
                         .filter(Objects::nonNull)
                         .collect(Collectors.toList()));
 
-        TemplateRegister.getInstance().getBusinesses().clear();
+        TemplateRegister.getInstance().clearBusinesses();
 
         businessSpecs = TemplateRegister.getInstance()
                 .registerBusinesses(loadTargetClassList(getImportInfoClassNames()));
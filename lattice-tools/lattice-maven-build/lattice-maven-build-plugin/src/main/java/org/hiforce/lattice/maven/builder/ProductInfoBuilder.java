@@ -33,7 +33,7 @@ public class ProductInfoBuilder extends LatticeInfoBuilder {
         List<ProductInfo> provided = getProductInfo(getProvidedInfoClassNames());
         getPlugin().getLatticeInfo().getProduct().getProviding().addAll(provided);
 
-        TemplateRegister.getInstance().getProducts().clear();
+        TemplateRegister.getInstance().clearProducts();
 
         List<ProductInfo> imported = getProductInfo(getImportInfoClassNames());
         getPlugin().getLatticeInfo().getProduct().getUsing().addAll(imported);
@@ -40,7 +40,7 @@ public class UseCaseInfoBuilder extends LatticeInfoBuilder {
             getPlugin().getLatticeInfo().getUseCase().getProviding().addAll(provided);
         }
 
-        TemplateRegister.getInstance().getUseCases().clear();
+        TemplateRegister.getInstance().clearUseCases();
         List<String> importClassNames = getImportInfoClassNames();
         if (CollectionUtils.isNotEmpty(importClassNames)) {
             List<UseCaseInfo> imported = getUseCaseInfo(importClassNames);